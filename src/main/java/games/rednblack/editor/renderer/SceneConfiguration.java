@@ -1,6 +1,7 @@
 package games.rednblack.editor.renderer;
 
 import com.artemis.BaseSystem;
+import com.artemis.SystemInvocationStrategy;
 import com.artemis.WorldConfigurationBuilder;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.World;
@@ -13,7 +14,11 @@ import games.rednblack.editor.renderer.resources.IResourceRetriever;
 import games.rednblack.editor.renderer.resources.ResourceManager;
 import games.rednblack.editor.renderer.systems.*;
 import games.rednblack.editor.renderer.systems.action.ActionSystem;
+import games.rednblack.editor.renderer.systems.action.GroupActionSystem;
+import games.rednblack.editor.renderer.systems.action.TweenSystem;
+import games.rednblack.editor.renderer.systems.event.EntityEventBus;
 import games.rednblack.editor.renderer.systems.render.HyperLap2dRenderer;
+import games.rednblack.editor.renderer.systems.strategy.EntityCommandBuffer;
 import games.rednblack.editor.renderer.utils.CpuPolygonSpriteBatch;
 
 import static games.rednblack.editor.renderer.SceneLoader.BATCH_VERTICES_SIZE;
@@ -32,9 +37,11 @@ public class SceneConfiguration {
     private final Array<SystemData<?>> systems = new Array<>();
     private int expectedEntityCount = 128;
     private boolean alwaysDelayComponentRemoval = false;
+    private SystemInvocationStrategy invocationStrategy = null;
 
     public SceneConfiguration() {
 
+        addSystem(new EntityCommandBuffer());
         addSystem(new ParticleSystem());
         addSystem(new LightSystem());
         addSystem(new SpriteAnimationSystem());
@@ -45,10 +52,13 @@ public class SceneConfiguration {
         addSystem(new TypingLabelSystem());
         addSystem(new ScriptSystem());
         addSystem(new ActionSystem());
+        addSystem(new TweenSystem());
+        addSystem(new GroupActionSystem());
         addSystem(new BoundingBoxSystem());
         addSystem(new CullingSystem());
         addSystem(new HyperLap2dRenderer(new CpuPolygonSpriteBatch(BATCH_VERTICES_SIZE, createDefaultShader())));
         addSystem(new ButtonSystem());
+        addSystem(new EntityEventBus());
 
     }
 
@@ -141,6 +151,14 @@ public class SceneConfiguration {
         this.alwaysDelayComponentRemoval = alwaysDelayComponentRemoval;
     }
 
+    /**
+     * Replaces the default sequential Artemis invocation strategy,
+     * e.g. {@link games.rednblack.editor.renderer.systems.strategy.ParallelInvocationStrategy}.
+     */
+    public void setInvocationStrategy(SystemInvocationStrategy invocationStrategy) {
+        this.invocationStrategy = invocationStrategy;
+    }
+
     // For SceneLoader's Use
 
     IResourceRetriever getiResourceRetriever() {
@@ -203,6 +221,10 @@ public class SceneConfiguration {
         return alwaysDelayComponentRemoval;
     }
 
+    public SystemInvocationStrategy getInvocationStrategy() {
+        return invocationStrategy;
+    }
+
     // For SceneConfiguration's Use
 
     static class SystemData<T extends BaseSystem> {
@@ -8,6 +8,9 @@ import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.Scaling;
 import com.badlogic.gdx.utils.viewport.ScalingViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
@@ -61,6 +64,7 @@ public class SceneLoader {
 
     // Initialised when createEngine is called
     private com.artemis.World engine = null;
+    private SystemInvocationStrategy invocationStrategy = null;
     private ComponentMapper<LightBodyComponent> lightBodyCM;
     private ComponentMapper<LightObjectComponent> lightObjectCM;
     private ComponentMapper<MainItemComponent> mainItemCM;
@@ -103,6 +107,10 @@ public class SceneLoader {
         WorldConfiguration build = config.build();
         build.expectedEntityCount(configuration.getExpectedEntityCount());
         build.setAlwaysDelayComponentRemoval(configuration.isAlwaysDelayComponentRemoval());
+        if (configuration.getInvocationStrategy() != null) {
+            invocationStrategy = configuration.getInvocationStrategy();
+            build.setInvocationStrategy(invocationStrategy);
+        }
 
         this.engine = new com.artemis.World(build);
 
@@ -157,7 +165,7 @@ public class SceneLoader {
                             ParentNodeComponent parentComponent = parentNodeCM.get(entity);
 
                             if (parentComponent == null) {
-                                return;
+                                continue;
                             }
 
                             int parentEntity = parentComponent.parentEntity;
@@ -169,16 +177,23 @@ public class SceneLoader {
                             NodeComponent nodeComponent = nodeCM.get(entity);
                             if (nodeComponent != null) {
                                 // it is composite
-                                for (int node : nodeComponent.children) {
-                                    if (engine.getEntity(node).isActive())
+                                int[] children = nodeComponent.children.begin();
+                                for (int j = 0, n = nodeComponent.children.size; j < n; j++) {
+                                    int node = children[j];
+                                    if (engine.getEntityManager().isActive(node))
                                         engine.delete(node);
                                 }
+                                nodeComponent.children.end();
                             }
 
                             //check for physics
                             PhysicsBodyComponent physicsBodyComponent = physicsBodyCM.get(entity);
                             if (physicsBodyComponent != null && physicsBodyComponent.body != null) {
-                                world.destroyBody(physicsBodyComponent.body);
+                                PhysicsSystem physicsSystem = engine.getSystem(PhysicsSystem.class);
+                                if (physicsSystem != null)
+                                    physicsSystem.destroyBody(physicsBodyComponent.body);
+                                else
+                                    world.destroyBody(physicsBodyComponent.body);
                                 physicsBodyComponent.body = null;
                             }
 
@@ -241,10 +256,12 @@ public class SceneLoader {
         renderer.setPixelsPerWU(pixelsPerWU);
 
         sceneVO = rm.getSceneVO(sceneName);
-        world.setGravity(new Vector2(sceneVO.physicsPropertiesVO.gravityX, sceneVO.physicsPropertiesVO.gravityY));
         PhysicsSystem physicsSystem = engine.getSystem(PhysicsSystem.class);
-        if (physicsSystem != null)
+        if (physicsSystem != null) {
+            physicsSystem.join();
             physicsSystem.setPhysicsOn(sceneVO.physicsPropertiesVO.enabled);
+        }
+        world.setGravity(new Vector2(sceneVO.physicsPropertiesVO.gravityX, sceneVO.physicsPropertiesVO.gravityY));
 
         if (sceneVO.composite == null) {
             sceneVO.composite = new CompositeVO();
@@ -348,6 +365,39 @@ public class SceneLoader {
         }
     }
 
+    /*
+     * Add an action from library actions shared by all the entities with specified tag:
+     * the action is evaluated once per frame and member i is delayed by i * phaseStep seconds.
+     * Only relative actions are supported, see Actions#addGroupAction
+     *
+     */
+    public int addGroupActionByTagName(String tagName, String action, float phaseStep) {
+        return addGroupActionByTagName(tagName, loadActionFromLibrary(action), phaseStep);
+    }
+
+    /*
+     * Add an action shared by all the entities with specified tag, see Actions#addGroupAction
+     *
+     */
+    public int addGroupActionByTagName(String tagName, ActionData action, float phaseStep) {
+        IntBag entities = engine.getAspectSubscriptionManager()
+                .get(Aspect.all(MainItemComponent.class))
+                .getEntities();
+
+        IntArray members = new IntArray();
+        FloatArray phases = new FloatArray();
+        for (int i = 0, s = entities.size(); s > i; i++) {
+            int id = entities.get(i);
+            MainItemComponent mainItemComponent = mainItemCM.get(id);
+            if (mainItemComponent.tags.contains(tagName)) {
+                phases.add(members.size * phaseStep);
+                members.add(id);
+            }
+        }
+
+        return Actions.addGroupAction(engine, members, phases, action);
+    }
+
     /**
      * Sets ambient light to the one specified in scene from editor
      *
@@ -406,6 +456,8 @@ public class SceneLoader {
         renderer.dispose();
         rayHandler.dispose();
         world.dispose();
+        if (invocationStrategy instanceof Disposable)
+            ((Disposable) invocationStrategy).dispose();
     }
 
     public EntityFactory getEntityFactory() {
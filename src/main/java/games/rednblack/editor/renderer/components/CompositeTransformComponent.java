@@ -11,6 +11,11 @@ public class CompositeTransformComponent  extends PooledComponent {
 	public final Rectangle scissors = new Rectangle();
 	public final Rectangle clipBounds = new Rectangle();
 
+	/** Hash of children transforms, dimensions and membership at the last automatic resize */
+	public int childrenHash;
+	/** Forces the next automatic resize even if {@link #childrenHash} did not change */
+	public boolean needsResize = true;
+
 	@Override
 	public void reset() {
 		automaticResize = true;
@@ -19,5 +24,7 @@ public class CompositeTransformComponent  extends PooledComponent {
 
 		scissors.set(0, 0, 0, 0);
 		clipBounds.set(0, 0, 0, 0);
+		childrenHash = 0;
+		needsResize = true;
 	}
 }
@@ -0,0 +1,81 @@
+package games.rednblack.editor.renderer.components;
+
+import com.artemis.PooledComponent;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Shared timeline of a group action: the actions run once on the proxy entity owning this component and the changes
+ * of its transform, size and tint are applied to every member, each one delayed by its own phase.
+ */
+public class GroupActionComponent extends PooledComponent {
+    /** x, y, scaleX, scaleY, rotation, width, height, r, g, b, a */
+    public static final int PROPERTIES = 11;
+
+    public IntArray members = new IntArray();
+    public FloatArray phases = new FloatArray();
+    /** Last timeline values applied to each member, {@link #PROPERTIES} values per member. */
+    public FloatArray applied = new FloatArray();
+    /**
+     * Unclamped tint of each member, 4 values per member. {@link com.badlogic.gdx.graphics.Color} clamps to [0, 1],
+     * so the offsets are accumulated here and NaN until the first update reads the member color.
+     */
+    public FloatArray tints = new FloatArray();
+
+    /** Recorded timeline, oldest first, starting at {@link #head}. */
+    public FloatArray sampleTimes = new FloatArray();
+    public FloatArray samples = new FloatArray();
+    public int head;
+
+    public float time;
+    public float maxPhase;
+    /** Time when the actions of the proxy ended, -1 while running. */
+    public float finishTime = -1;
+
+    /**
+     * Records the state of the proxy at the given time of the timeline.
+     */
+    public void addSample(float time, TransformComponent transform, DimensionsComponent dimensions, TintComponent tint) {
+        sampleTimes.add(time);
+        samples.add(transform.x, transform.y, transform.scaleX, transform.scaleY);
+        samples.add(transform.rotation, dimensions.width, dimensions.height);
+        samples.add(tint.color.r, tint.color.g, tint.color.b, tint.color.a);
+    }
+
+    /**
+     * @param rest state the member starts from, usually the first sample
+     */
+    public void addMember(int entity, float phase, float[] rest) {
+        members.add(entity);
+        phases.add(phase);
+        applied.addAll(rest, 0, PROPERTIES);
+        tints.add(Float.NaN, Float.NaN, Float.NaN, Float.NaN);
+        maxPhase = Math.max(maxPhase, phase);
+    }
+
+    public void removeMemberIndex(int index) {
+        int last = members.size - 1;
+        members.set(index, members.get(last));
+        phases.set(index, phases.get(last));
+        System.arraycopy(applied.items, last * PROPERTIES, applied.items, index * PROPERTIES, PROPERTIES);
+        System.arraycopy(tints.items, last * 4, tints.items, index * 4, 4);
+        members.size--;
+        phases.size--;
+        applied.size -= PROPERTIES;
+        tints.size -= 4;
+    }
+
+    @Override
+    public void reset() {
+        members.clear();
+        phases.clear();
+        applied.clear();
+        tints.clear();
+        sampleTimes.clear();
+        samples.clear();
+        head = 0;
+        time = 0;
+        maxPhase = 0;
+        finishTime = -1;
+    }
+}
@@ -5,6 +5,8 @@ import java.util.Collections;
 import java.util.HashMap;
 
 import com.artemis.PooledComponent;
+import com.badlogic.gdx.utils.Bits;
+import com.badlogic.gdx.utils.ObjectIntMap;
 import games.rednblack.editor.renderer.data.LayerItemVO;
 
 public class LayerMapComponent  extends PooledComponent {
@@ -12,6 +14,13 @@ public class LayerMapComponent  extends PooledComponent {
 	private ArrayList<LayerItemVO> layers = new ArrayList<>();
 
 	private final HashMap<String, LayerItemVO> layerMap = new HashMap<>();
+	private final ObjectIntMap<String> layerIds = new ObjectIntMap<>();
+
+	/** Layer ids whose layer is currently hidden, see {@link #isLayerHidden(int)} */
+	private final Bits hiddenLayers = new Bits();
+
+	/** True when the layer list changed and children layer indices must be resolved again */
+	public boolean needsUpdate = false;
 
 	public void setLayers(ArrayList<LayerItemVO> layers) {
 		this.layers = layers;
@@ -19,6 +28,7 @@ public class LayerMapComponent  extends PooledComponent {
 		for (LayerItemVO vo : layers) {
 			layerMap.put(vo.layerName, vo);
 		}
+		layersChanged();
 	}
 
 	public LayerItemVO getLayer(String name) {
@@ -26,11 +36,14 @@ public class LayerMapComponent  extends PooledComponent {
 	}
 
 	public int getIndexByName(String name) {
-		if(layerMap.containsKey(name)) {
-			return layers.indexOf(layerMap.get(name));
-		}
+		return layerIds.get(name, 0);
+	}
 
-		return 0;
+	/**
+	 * @return the index of the layer in the layer list, or -1 if there is no layer with that name
+	 */
+	public int getLayerId(String name) {
+		return layerIds.get(name, -1);
 	}
 
 	public boolean isVisible(String name) {
@@ -42,14 +55,36 @@ public class LayerMapComponent  extends PooledComponent {
 		return true;
 	}
 
+	/**
+	 * Bit test against the visibility mask built by {@link #updateVisibility()}.
+	 *
+	 * @param layerId id returned by {@link #getLayerId(String)}, unknown layers (-1) are never hidden
+	 */
+	public boolean isLayerHidden(int layerId) {
+		return layerId >= 0 && hiddenLayers.get(layerId);
+	}
+
+	/**
+	 * Rebuilds the hidden layers mask from {@link LayerItemVO#isVisible}, it costs one check per layer.
+	 */
+	public void updateVisibility() {
+		hiddenLayers.clear();
+		for (int i = 0, n = layers.size(); i < n; i++) {
+			if (!layers.get(i).isVisible)
+				hiddenLayers.set(i);
+		}
+	}
+
 	public void addLayer(int index, LayerItemVO layerVo) {
 		layers.add(index, layerVo);
 		layerMap.put(layerVo.layerName, layerVo);
+		layersChanged();
 	}
 
 	public void addLayer(LayerItemVO layerVo) {
 		layers.add(layerVo);
 		layerMap.put(layerVo.layerName, layerVo);
+		layersChanged();
 	}
 
 	public ArrayList<LayerItemVO> getLayers() {
@@ -59,6 +94,7 @@ public class LayerMapComponent  extends PooledComponent {
 	public void deleteLayer(String layerName) {
 		layers.remove(getIndexByName(layerName));
 		layerMap.remove(layerName);
+		layersChanged();
 	}
 
 	public void rename(String prevName, String newName) {
@@ -66,12 +102,23 @@ public class LayerMapComponent  extends PooledComponent {
 		vo.layerName = newName;
 		layerMap.remove(prevName);
 		layerMap.put(newName, vo);
+		layersChanged();
 	}
 
 	public void swap(String source, String target) {
-		LayerItemVO sourceVO = getLayer(source);
-		LayerItemVO targetVO = getLayer(target);
-		Collections.swap(layers, layers.indexOf(sourceVO), layers.indexOf(targetVO));
+		int sourceIndex = getLayerId(source);
+		int targetIndex = getLayerId(target);
+		Collections.swap(layers, sourceIndex, targetIndex);
+		layersChanged();
+	}
+
+	private void layersChanged() {
+		layerIds.clear();
+		for (int i = 0, n = layers.size(); i < n; i++) {
+			layerIds.put(layers.get(i).layerName, i);
+		}
+		updateVisibility();
+		needsUpdate = true;
 	}
 
 	@Override
@@ -79,5 +126,8 @@ public class LayerMapComponent  extends PooledComponent {
 		autoIndexing = true;
 		layers.clear();
 		layerMap.clear();
+		layerIds.clear();
+		hiddenLayers.clear();
+		needsUpdate = false;
 	}
 }
@@ -1,23 +1,34 @@
 package games.rednblack.editor.renderer.components;
 
 import com.artemis.PooledComponent;
-import com.badlogic.gdx.utils.SnapshotArray;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 
-
-// TODO: Check if i can change Entity to Integer
 public class NodeComponent extends PooledComponent {
-    public SnapshotArray<Integer> children = new SnapshotArray<>(true, 1, Integer.class);
+    /**
+     * Children entity ids. Removing a child is O(1) but moves the last child in its slot,
+     * {@link games.rednblack.editor.renderer.systems.LayerSystem} restores the z-order on the next update.
+     */
+    public SnapshotIntArray children = new SnapshotIntArray(4);
+
+    /**
+     * True when children membership or one of their z-order keys changed since the last sort.
+     * Cleared by {@link games.rednblack.editor.renderer.systems.LayerSystem}.
+     */
+    public boolean needsSort = false;
 
-    public void removeChild(Integer entity) {
-        children.removeValue(entity, false);
+    public void removeChild(int entity) {
+        if (children.removeValue(entity))
+            needsSort = true;
     }
 
-    public void addChild(Integer entity) {
-        children.add(entity);
+    public void addChild(int entity) {
+        if (children.add(entity))
+            needsSort = true;
     }
 
     @Override
     public void reset() {
         children.clear();
+        needsSort = false;
     }
 }
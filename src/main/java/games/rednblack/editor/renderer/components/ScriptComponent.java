@@ -7,7 +7,9 @@ import com.badlogic.gdx.utils.Pool;
 import com.badlogic.gdx.utils.Pools;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.badlogic.gdx.utils.reflect.ReflectionException;
+import games.rednblack.editor.renderer.physics.PhysicsContact;
 import games.rednblack.editor.renderer.scripts.BasicScript;
+import games.rednblack.editor.renderer.systems.PhysicsSystem;
 import games.rednblack.editor.renderer.scripts.IScript;
 
 import java.util.Iterator;
@@ -19,11 +21,23 @@ public class ScriptComponent  extends PooledComponent {
     public static int SCRIPTS_POOL_SIZE = 100;
 
     public Array<IScript> scripts = new Array<>();
+    /** Scripts implementing {@link PhysicsContact}, kept in sync by the add and remove methods. */
+    public Array<PhysicsContact> contacts = new Array<>(false, 0);
+    /** Contacts receiving pre and post solve callbacks, see {@link PhysicsContact#needsSolveCallbacks()}. */
+    public Array<PhysicsContact> solveContacts = new Array<>(false, 0);
     public World engine;
 
     public void addScript(IScript script) {
         engine.inject(script);
         scripts.add(script);
+        if (script instanceof PhysicsContact) {
+            PhysicsContact contact = (PhysicsContact) script;
+            contacts.add(contact);
+            if (contact.needsSolveCallbacks()) {
+                solveContacts.add(contact);
+                updateSolveListeners(1);
+            }
+        }
     }
 
     public <T extends BasicScript> T addScript(Class<T> clazz) {
@@ -47,6 +61,7 @@ public class ScriptComponent  extends PooledComponent {
             //Remove from scripts list
             if(s == script) {
                 i.remove();
+                removeContact(s);
             }
         }
     }
@@ -64,10 +79,25 @@ public class ScriptComponent  extends PooledComponent {
             //Remove from scripts list
             if(s.getClass() == clazz) {
                 i.remove();
+                removeContact(s);
             }
         }
     }
 
+    private void removeContact(IScript script) {
+        if (script instanceof PhysicsContact) {
+            contacts.removeValue((PhysicsContact) script, true);
+            if (solveContacts.removeValue((PhysicsContact) script, true))
+                updateSolveListeners(-1);
+        }
+    }
+
+    private void updateSolveListeners(int count) {
+        PhysicsSystem physicsSystem = engine != null ? engine.getSystem(PhysicsSystem.class) : null;
+        if (physicsSystem != null)
+            physicsSystem.updateSolveListeners(count);
+    }
+
     @Override
     public void reset() {
         for (IScript script : scripts) {
@@ -80,5 +110,9 @@ public class ScriptComponent  extends PooledComponent {
         }
         //Remove all scripts
         scripts.clear();
+        contacts.clear();
+        if (solveContacts.size > 0)
+            updateSolveListeners(-solveContacts.size);
+        solveContacts.clear();
     }
 }
@@ -1,13 +1,25 @@
 package games.rednblack.editor.renderer.components;
 
 import com.artemis.PooledComponent;
+import com.badlogic.gdx.utils.Bits;
 import com.badlogic.gdx.utils.viewport.Viewport;
 
 public class ViewPortComponent  extends PooledComponent {
 	public Viewport viewPort;
 
+	/**
+	 * Entities that are outside of this viewport's camera, indexed by entity id.
+	 * Filled by {@link games.rednblack.editor.renderer.systems.CullingSystem} once per frame.
+	 */
+	public final Bits culledEntities = new Bits();
+
+	public boolean isCulled(int entity) {
+		return culledEntities.get(entity);
+	}
+
 	@Override
 	public void reset() {
 		viewPort = null;
+		culledEntities.clear();
 	}
 }
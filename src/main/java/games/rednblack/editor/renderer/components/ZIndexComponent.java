@@ -5,8 +5,14 @@ import com.artemis.PooledComponent;
 public class ZIndexComponent  extends PooledComponent {
     private int zIndex = 0;
     public boolean needReOrder = false;
+    /** Use {@link #setLayerName(String)} to change it at runtime, so that the parent composite gets re-sorted */
     public String layerName = "";
     public int layerIndex;
+    /** Resolved id of {@link #layerName} in the parent's {@link LayerMapComponent}, -1 if unknown */
+    public int layerId = -1;
+
+    /** Node that holds this entity, bound by {@link games.rednblack.editor.renderer.systems.LayerSystem} */
+    public NodeComponent parentNode;
 
     public int getZIndex() {
         return zIndex;
@@ -15,17 +21,30 @@ public class ZIndexComponent  extends PooledComponent {
     public void setZIndex(int zIndex) {
         this.zIndex = zIndex;
         needReOrder = true;
+        invalidateOrder();
+    }
+
+    public void setLayerName(String layerName) {
+        this.layerName = layerName;
+        invalidateOrder();
     }
 
     public int getGlobalZIndex() {
         return layerIndex + zIndex;
     }
 
+    private void invalidateOrder() {
+        if (parentNode != null)
+            parentNode.needsSort = true;
+    }
+
     @Override
     public void reset() {
         zIndex = 0;
         needReOrder = false;
         layerName = "";
         layerIndex = 0;
+        layerId = -1;
+        parentNode = null;
     }
-}
\ No newline at end of file
+}
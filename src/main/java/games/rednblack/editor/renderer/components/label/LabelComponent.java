@@ -6,11 +6,18 @@ import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.scenes.scene2d.ui.Label.LabelStyle;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.StringBuilder;
+import games.rednblack.editor.renderer.utils.GlyphLayoutCache;
 
 public class LabelComponent extends PooledComponent {
 	public  LabelStyle style;
 	public final GlyphLayout layout = new GlyphLayout();
+	/** Cache drawn for this label: its own one, or the one of {@link #sharedLayout}. */
 	public BitmapFontCache cache;
+	private BitmapFontCache ownCache;
+	/** Layout shared with identical labels, null if the label uses its own {@link #layout}. */
+	public GlyphLayoutCache.Entry sharedLayout;
+	/** Whether the label can share its layout, disabled by the numeric setters: their text changes too often. */
+	public boolean shareLayout = true;
 
 	public final StringBuilder text = new StringBuilder();
 	public String fontName;
@@ -21,6 +28,24 @@ public class LabelComponent extends PooledComponent {
 	public float fontScaleX = 1f;
 	public float fontScaleY = 1f;
 
+	/** Bumped by every setter that affects the layout, the label is laid out again only when it changes. */
+	private int version = 0;
+	/** Version and size the current layout was computed with, maintained by {@link games.rednblack.editor.renderer.systems.LabelSystem}. */
+	public int layoutVersion = -1;
+	public float layoutWidth = -1, layoutHeight = -1;
+	public float layoutTextX, layoutTextY;
+	/** Set by the numeric setters when only digits changed since the last layout: glyphs can be swapped in place. */
+	public boolean digitsChanged = false;
+
+	/** Values the current layout was computed with, to detect direct changes of the public fields. */
+	private final StringBuilder layoutText = new StringBuilder();
+	private LabelStyle layoutStyle;
+	private int layoutLabelAlign, layoutLineAlign;
+	private boolean layoutWrap;
+	private float layoutFontScaleX, layoutFontScaleY;
+
+	private final char[] numberChars = new char[32];
+
 	public LabelComponent() {
 
 	}
@@ -29,7 +54,9 @@ public class LabelComponent extends PooledComponent {
 		if (style == null) throw new IllegalArgumentException("style cannot be null.");
 		if (style.font == null) throw new IllegalArgumentException("Missing LabelStyle font.");
 		this.style = style;
-		cache = style.font.newFontCache();
+		ownCache = style.font.newFontCache();
+		setSharedLayout(null);
+		invalidate();
 	}
 	
 	public LabelStyle getStyle () {
@@ -48,6 +75,7 @@ public class LabelComponent extends PooledComponent {
 			text.setLength(0);
 			text.append(newText);
 		}
+		invalidate();
 	}
 	
 	public boolean textEquals (CharSequence other) {
@@ -59,12 +87,123 @@ public class LabelComponent extends PooledComponent {
 		return true;
 	}
 
+	/** Sets the text to the given integer, without allocating. */
+	public void setInt (int value) {
+		int start = writeNumber(value, numberChars.length, 0);
+		setNumberChars(start);
+	}
+
+	/** Sets the text to the given value with a fixed number of decimals (at most 9), without allocating. */
+	public void setFixed (float value, int decimals) {
+		decimals = Math.max(0, Math.min(9, decimals));
+		long factor = 1;
+		for (int i = 0; i < decimals; i++)
+			factor *= 10;
+		setNumberChars(writeNumber(Math.round((double)value * factor), numberChars.length, decimals));
+	}
+
+	/** Sets the text to the given time as m:ss, or h:mm:ss above one hour, without allocating. */
+	public void setTime (float seconds) {
+		long total = Math.max(0, (long)seconds);
+		char[] chars = numberChars;
+		int start = writeNumber(total % 60, chars.length, 0);
+		if (total % 60 < 10) chars[--start] = '0';
+		chars[--start] = ':';
+		if (total < 3600) {
+			start = writeNumber(total / 60, start, 0);
+		} else {
+			start = writeNumber(total / 60 % 60, start, 0);
+			if (total / 60 % 60 < 10) chars[--start] = '0';
+			chars[--start] = ':';
+			start = writeNumber(total / 3600, start, 0);
+		}
+		setNumberChars(start);
+	}
+
+	/** Writes the value backwards into {@link #numberChars}, ending at the given index.
+	 * @return the index of the first char */
+	private int writeNumber (long value, int end, int decimals) {
+		char[] chars = numberChars;
+		boolean negative = value < 0;
+		if (negative) value = -value;
+		int i = end;
+		do {
+			chars[--i] = (char)('0' + value % 10);
+			value /= 10;
+			if (--decimals == 0) chars[--i] = '.';
+		} while (value != 0 || decimals >= 0);
+		if (negative) chars[--i] = '-';
+		return i;
+	}
+
+	private void setNumberChars (int start) {
+		char[] chars = numberChars;
+		int length = chars.length - start;
+		boolean changed = text.length != length;
+		boolean digitsOnly = !changed;
+		for (int i = 0; i < length && digitsOnly; i++) {
+			char current = text.chars[i], next = chars[start + i];
+			if (current == next) continue;
+			changed = true;
+			digitsOnly = Character.isDigit(current) && Character.isDigit(next);
+		}
+		if (!changed) return;
+
+		shareLayout = false;
+		text.setLength(0);
+		text.append(chars, start, length);
+		if (digitsOnly && layoutVersion == version)
+			digitsChanged = true;
+		else
+			invalidate();
+	}
+
+	/** Forces a new layout. Direct changes of {@link #text} or of the public fields are detected as well, by comparing
+	 * them with the values of the last layout. */
+	public void invalidate () {
+		version++;
+	}
+
+	/** @return true if the fields affecting the layout, except the text, still have the values of the last layout */
+	public boolean layoutFieldsMatch () {
+		return style == layoutStyle && labelAlign == layoutLabelAlign && lineAlign == layoutLineAlign && wrap == layoutWrap
+				&& fontScaleX == layoutFontScaleX && fontScaleY == layoutFontScaleY;
+	}
+
+	/** @return true if the text is the one of the last layout */
+	public boolean layoutTextMatches () {
+		return textEquals(layoutText);
+	}
+
+	/** Records the values the layout has been computed with, called by {@link games.rednblack.editor.renderer.systems.LabelSystem}. */
+	public void storeLayoutState () {
+		layoutText.setLength(0);
+		layoutText.append(text);
+		layoutStyle = style;
+		layoutLabelAlign = labelAlign;
+		layoutLineAlign = lineAlign;
+		layoutWrap = wrap;
+		layoutFontScaleX = fontScaleX;
+		layoutFontScaleY = fontScaleY;
+	}
+
+	public int getVersion () {
+		return version;
+	}
+
 	public StringBuilder getText () {
 		return text;
 	}
 	
 	public GlyphLayout getGlyphLayout () {
-		return layout;
+		return sharedLayout != null ? sharedLayout.layout : layout;
+	}
+
+	/** Draws the given shared layout instead of the label's own one, releasing the previous shared layout. */
+	public void setSharedLayout (GlyphLayoutCache.Entry entry) {
+		if (sharedLayout != null) sharedLayout.release();
+		sharedLayout = entry;
+		cache = entry != null ? entry.cache : ownCache;
 	}
 
 	/** If false, the text will only wrap where it contains newlines (\n). The preferred size of the label will be the text bounds.
@@ -76,7 +215,9 @@ public class LabelComponent extends PooledComponent {
 	 * will need to layout twice: once to set the width of the label and a second time to adjust to the label's new preferred
 	 * height. */
 	public void setWrap (boolean wrap) {
+		if (this.wrap == wrap) return;
 		this.wrap = wrap;
+		invalidate();
 	}
 
 	/** @param alignment Aligns each line of text horizontally and all the text vertically.
@@ -97,16 +238,19 @@ public class LabelComponent extends PooledComponent {
 			this.lineAlign = Align.right;
 		else
 			this.lineAlign = Align.center;
+		invalidate();
 	}
 	
 	public void setFontScale (float fontScale) {
 		this.fontScaleX = fontScale;
 		this.fontScaleY = fontScale;
+		invalidate();
 	}
 
 	public void setFontScale (float fontScaleX, float fontScaleY) {
 		this.fontScaleX = fontScaleX;
 		this.fontScaleY = fontScaleY;
+		invalidate();
 	}
 
 	public float getFontScaleX () {
@@ -115,6 +259,7 @@ public class LabelComponent extends PooledComponent {
 
 	public void setFontScaleX (float fontScaleX) {
 		this.fontScaleX = fontScaleX;
+		invalidate();
 	}
 
 	public float getFontScaleY () {
@@ -123,13 +268,17 @@ public class LabelComponent extends PooledComponent {
 
 	public void setFontScaleY (float fontScaleY) {
 		this.fontScaleY = fontScaleY;
+		invalidate();
 	}
 
 	@Override
 	public void reset() {
 		style = null;
 		layout.reset();
+		setSharedLayout(null);
 		cache = null;
+		ownCache = null;
+		shareLayout = true;
 
 		text.delete(0,text.length());
 		fontName = null;
@@ -139,5 +288,14 @@ public class LabelComponent extends PooledComponent {
 		wrap = false;
 		fontScaleX = 1f;
 		fontScaleY = 1f;
+		version = 0;
+		layoutVersion = -1;
+		layoutWidth = -1;
+		layoutHeight = -1;
+		layoutTextX = 0;
+		layoutTextY = 0;
+		digitsChanged = false;
+		layoutText.setLength(0);
+		layoutStyle = null;
 	}
 }
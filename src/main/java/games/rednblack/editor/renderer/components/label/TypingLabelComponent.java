@@ -1,18 +1,33 @@
 package games.rednblack.editor.renderer.components.label;
 
 import com.artemis.PooledComponent;
+import com.badlogic.gdx.utils.Pool;
 import com.rafaskoberg.gdx.typinglabel.TypingLabel;
 import games.rednblack.editor.renderer.components.RemovableObject;
 
 public class TypingLabelComponent extends PooledComponent implements RemovableObject {
 
     public TypingLabel typingLabel;
+    /** Pool the {@link #typingLabel} is given back to when the component is reset. */
+    public Pool<TypingLabel> pool;
+
+    /** {@link LabelComponent} version the typing label was last synchronized with. */
+    public int labelVersion = -1;
+    /** Whether the text contains tokens, whose effects keep running after typing has ended. */
+    public boolean hasTokens;
 
     @Override
     public void reset() {
-        if (typingLabel != null)
-            typingLabel.remove();
+        if (typingLabel != null) {
+            if (pool != null)
+                pool.free(typingLabel);
+            else
+                typingLabel.remove();
+        }
         typingLabel = null;
+        pool = null;
+        labelVersion = -1;
+        hasTokens = false;
     }
 
     @Override
@@ -2,6 +2,7 @@ package games.rednblack.editor.renderer.components.particle;
 
 import com.artemis.PooledComponent;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import games.rednblack.editor.renderer.utils.CulledUpdate;
 
 public class ParticleComponent extends PooledComponent {
     public String particleName = "";
@@ -12,6 +13,12 @@ public class ParticleComponent extends PooledComponent {
 
     public ParticleEffect particleEffect;
 
+    /**
+     * Off-screen effects are updated every frame by default: particles can travel outside the emitter bounds.
+     * Set the policy to throttle them, catching up at most one second when visible again.
+     */
+    public final CulledUpdate culledUpdate = new CulledUpdate(CulledUpdate.Policy.FULL, 1f);
+
     public void scaleEffect(float scale) {
         scaleFactor = scale;
         particleEffect.scaleEffect(scaleFactor * worldMultiplier);
@@ -29,5 +36,6 @@ public class ParticleComponent extends PooledComponent {
         scaleFactor = 1f;
 
         particleEffect = null;
+        culledUpdate.reset();
     }
 }
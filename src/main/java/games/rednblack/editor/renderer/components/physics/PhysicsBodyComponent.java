@@ -1,6 +1,7 @@
 package games.rednblack.editor.renderer.components.physics;
 
 import com.artemis.ComponentMapper;
+import com.artemis.annotations.Wire;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import games.rednblack.editor.renderer.box2dLight.LightData;
@@ -9,11 +10,14 @@ import games.rednblack.editor.renderer.components.PolygonComponent;
 import games.rednblack.editor.renderer.components.RemovableObject;
 import games.rednblack.editor.renderer.components.TransformComponent;
 import games.rednblack.editor.renderer.physics.PhysicsBodyLoader;
+import games.rednblack.editor.renderer.systems.PhysicsSystem;
 
 public class PhysicsBodyComponent extends RefreshableComponent implements RemovableObject {
 
     protected ComponentMapper<TransformComponent> transformCM;
     protected ComponentMapper<PolygonComponent> polygonCM;
+    @Wire(failOnNull = false)
+    protected PhysicsSystem physicsSystem;
 
     protected boolean needsRefresh = false;
 
@@ -44,6 +48,13 @@ public class PhysicsBodyComponent extends RefreshableComponent implements Remova
 
     public Body body;
 
+    /** Body position and angle before the last step, see {@link games.rednblack.editor.renderer.systems.PhysicsSystem#interpolate(int, float)}. */
+    public float previousX, previousY, previousAngle;
+    /** Body position and angle after the last step, published by the physics thread when stepping asynchronously. */
+    public float currentX, currentY, currentAngle;
+    /** False until the previous state has been stored, e.g. for a new body. */
+    public boolean hasPreviousState = false;
+
     public PhysicsBodyComponent() {
 
     }
@@ -51,7 +62,11 @@ public class PhysicsBodyComponent extends RefreshableComponent implements Remova
     @Override
     public void onRemove() {
         if (body != null && body.getWorld() != null) {
-            body.getWorld().destroyBody(body);
+            // the world may be stepping on the physics thread
+            if (physicsSystem != null)
+                physicsSystem.destroyBody(body);
+            else
+                body.getWorld().destroyBody(body);
             body = null;
         }
     }
@@ -85,11 +100,24 @@ public class PhysicsBodyComponent extends RefreshableComponent implements Remova
 
         needsRefresh = false;
         body = null;
+
+        previousX = 0;
+        previousY = 0;
+        previousAngle = 0;
+        currentX = 0;
+        currentY = 0;
+        currentAngle = 0;
+        hasPreviousState = false;
     }
 
     public FixtureDef createFixtureDef() {
-        FixtureDef fixtureDef = new FixtureDef();
+        return setFixtureDef(new FixtureDef());
+    }
 
+    /**
+     * Copies the fixture properties into an existing definition, using the shared shape of {@link PhysicsBodyLoader}.
+     */
+    public FixtureDef setFixtureDef(FixtureDef fixtureDef) {
         fixtureDef.density = density;
         fixtureDef.friction = friction;
         fixtureDef.restitution = restitution;
@@ -123,8 +151,6 @@ public class PhysicsBodyComponent extends RefreshableComponent implements Remova
         if (polygonComponent == null || polygonComponent.vertices == null) return;
 
         TransformComponent transformComponent = transformCM.get(entity);
-        float scaleX = transformComponent.scaleX * (transformComponent.flipX ? -1 : 1);
-        float scaleY = transformComponent.scaleY * (transformComponent.flipY ? -1 : 1);
 
         if (body != null) {
             //TODO currently we support only one shape per entity, this may be changed in future to support multiple shapes
@@ -138,23 +164,7 @@ public class PhysicsBodyComponent extends RefreshableComponent implements Remova
                     PolygonShape p = (PolygonShape) shape;
                     Vector2[] minPolygonDatum = polygonComponent.vertices[i];
                     float[] verts = PhysicsBodyLoader.getInstance().getVerticesArray(minPolygonDatum.length * 2);
-                    for (int j = 0; j < verts.length; j += 2) {
-                        float tempX = minPolygonDatum[j / 2].x;
-                        float tempY = minPolygonDatum[j / 2].y;
-
-                        minPolygonDatum[j / 2].x -= transformComponent.originX;
-                        minPolygonDatum[j / 2].y -= transformComponent.originY;
-
-                        minPolygonDatum[j / 2].x *= scaleX;
-                        minPolygonDatum[j / 2].y *= scaleY;
-
-                        verts[j] = minPolygonDatum[j / 2].x;
-                        verts[j + 1] = minPolygonDatum[j / 2].y;
-
-                        minPolygonDatum[j / 2].x = tempX;
-                        minPolygonDatum[j / 2].y = tempY;
-
-                    }
+                    PhysicsBodyLoader.getInstance().computeVertices(minPolygonDatum, transformComponent, verts);
                     p.set(verts);
                 }
             }
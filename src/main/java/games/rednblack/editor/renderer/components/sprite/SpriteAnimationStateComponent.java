@@ -6,6 +6,7 @@ import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.Array;
 import games.rednblack.editor.renderer.data.FrameRange;
+import games.rednblack.editor.renderer.utils.CulledUpdate;
 
 import java.util.Comparator;
 import java.util.Objects;
@@ -17,6 +18,9 @@ public class SpriteAnimationStateComponent  extends PooledComponent {
 
     public  boolean paused = false;
 
+    /** Off-screen animations are updated every frame by default, when throttled skipped time is fully restored. */
+    public final CulledUpdate culledUpdate = new CulledUpdate(CulledUpdate.Policy.FULL, Float.MAX_VALUE);
+
     private FrameRange lastFrameRange = null;
     private int lastFPS = -1;
     private Animation.PlayMode lastPlayMode = null;
@@ -68,6 +72,7 @@ public class SpriteAnimationStateComponent  extends PooledComponent {
         lastFrameRange = null;
         lastFPS = -1;
         lastPlayMode = null;
+        culledUpdate.reset();
     }
 
     private static class SortRegionsComparator implements Comparator<TextureAtlas.AtlasRegion> {
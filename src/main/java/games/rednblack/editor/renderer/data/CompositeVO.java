@@ -317,7 +317,8 @@ public class CompositeVO {
         BaseComponentMapper<LayerMapComponent> layerMainItemComponentComponentMapper = ComponentRetriever.getMapper(LayerMapComponent.class);
 
         if (nodeComponent == null) return;
-        for (int entity : nodeComponent.children) {
+        for (int i = 0; i < nodeComponent.children.size; i++) {
+            int entity = nodeComponent.children.get(i);
             int entityType = mainItemComponentMapper.get(entity).entityType;
             if (entityType == EntityFactory.COMPOSITE_TYPE) {
                 CompositeItemVO vo = new CompositeItemVO();
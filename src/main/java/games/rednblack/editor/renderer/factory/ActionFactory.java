@@ -3,7 +3,10 @@ package games.rednblack.editor.renderer.factory;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
 import games.rednblack.editor.renderer.data.GraphConnectionVO;
 import games.rednblack.editor.renderer.data.GraphNodeVO;
 import games.rednblack.editor.renderer.data.GraphVO;
@@ -16,7 +19,7 @@ import java.util.*;
 
 public class ActionFactory {
     private final Map<String, GraphVO> actionsLibrary;
-    private final Map<String, GraphCache> actionsCache = new HashMap<String, GraphCache>();
+    private final Map<String, ActionTemplate> actionsCache = new HashMap<String, ActionTemplate>();
 
     public ActionFactory(Map<String, GraphVO> actions) {
         actionsLibrary = actions;
@@ -46,11 +49,10 @@ public class ActionFactory {
         if (actionsLibrary.get(actionName) == null)
             throw new IllegalArgumentException("The action '" + actionName + "' does not exists.");
 
-        GraphCache graphCache = getOrCreateGraphData(actionName);
-
         ActionData data;
         try {
-            data = getActionData(graphCache.rootNode, graphCache.toNodeConnections, graphCache.nodes, autoPoolable, params, listener);
+            ActionTemplate template = getOrCompileTemplate(actionName);
+            data = template.newActionData(autoPoolable, params, listener);
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("The action '" + actionName + "' has not a valid format.");
@@ -58,9 +60,10 @@ public class ActionFactory {
         return data;
     }
 
-    private GraphCache getOrCreateGraphData(String actionName) {
-        if (actionsCache.get(actionName) != null)
-            return actionsCache.get(actionName);
+    private ActionTemplate getOrCompileTemplate(String actionName) {
+        ActionTemplate template = actionsCache.get(actionName);
+        if (template != null)
+            return template;
 
         GraphVO actionGraph = actionsLibrary.get(actionName);
 
@@ -79,216 +82,102 @@ public class ActionFactory {
             String toField = connection.toField;
 
             toNodeConnections.get(toNode).add(connection);
-            Collections.sort(toNodeConnections.get(toNode));
 
             if (toNode.equals("end") && toField.equals("action")) {
                 actionNode = fromNode;
             }
         }
-
-        GraphCache graphCache = new GraphCache();
-        graphCache.rootNode = nodes.get(actionNode);
-        graphCache.nodes = nodes;
-        graphCache.toNodeConnections = toNodeConnections;
-
-        actionsCache.put(actionName, graphCache);
-
-        return graphCache;
-    }
-
-    private ActionData getActionData(GraphNodeVO node, Map<String, List<GraphConnectionVO>> toNodeConnections,
-                                     Map<String, GraphNodeVO> nodes, boolean autoPoolable, ObjectMap<String, Object> params,
-                                     ActionEventListener listener) {
-        ActionData actionData = mapTypeToActionData(node.type, autoPoolable);
-
-        for (GraphConnectionVO inConnection : toNodeConnections.get(node.id)) {
-            if (inConnection.toField.contains("action")) {
-                ActionData subAction = getActionData(nodes.get(inConnection.fromNode), toNodeConnections,
-                        nodes, autoPoolable, params, listener);
-                addSubAction(actionData, subAction);
-            }
-
-            addActionDataParameter(actionData, nodes, toNodeConnections.get(node.id), params);
+        for (List<GraphConnectionVO> connections : toNodeConnections.values()) {
+            Collections.sort(connections);
         }
 
-        addActionDataValueParameter(node, actionData, listener);
-        return actionData;
-    }
-
-    private void addSubAction(ActionData actionData, ActionData subAction) {
-        if (actionData instanceof DelegateData) {
-            ((DelegateData) actionData).setDelegatedAction(subAction);
-        }
+        template = compile(nodes.get(actionNode), toNodeConnections, nodes);
+        actionsCache.put(actionName, template);
 
-        if (actionData instanceof ParallelData) {
-            ((ParallelData) actionData).actionsData.add(subAction);
-        }
+        return template;
     }
 
-    private void addActionDataParameter(ActionData actionData, Map<String, GraphNodeVO> nodes,
-                                        List<GraphConnectionVO> connections, ObjectMap<String, Object> params) {
-        if (actionData instanceof TemporalData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "duration":
-                        ((TemporalData) actionData).setDuration((Float) getValue(nodes.get(connection.fromNode), params));
-                        break;
-                    case "interpolation":
-                        ((TemporalData) actionData).setInterpolation((Interpolation) getValue(nodes.get(connection.fromNode), params));
-                        break;
-                }
-            }
-        }
-
-        if (actionData instanceof MoveToData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "position":
-                        Vector2 pos = (Vector2) getValue(nodes.get(connection.fromNode), params);
-                        ((MoveToData) actionData).setEndX(pos.x);
-                        ((MoveToData) actionData).setEndY(pos.y);
-                        break;
-                }
-            }
-        }
-
-        if (actionData instanceof MoveByData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "position":
-                        Vector2 pos = (Vector2) getValue(nodes.get(connection.fromNode), params);
-                        ((MoveByData) actionData).setAmountX(pos.x);
-                        ((MoveByData) actionData).setAmountY(pos.y);
-                        break;
-                }
-            }
-        }
-
-        if (actionData instanceof RotateToData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "degree":
-                        ((RotateToData) actionData).setEnd((Float) getValue(nodes.get(connection.fromNode), params));
-                        break;
-                }
-            }
-        }
-
-        if (actionData instanceof RotateByData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "degree":
-                        ((RotateByData) actionData).setAmount((Float) getValue(nodes.get(connection.fromNode), params));
-                        break;
-                }
-            }
-        }
-
-        if (actionData instanceof SizeToData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "size":
-                        Vector2 pos = (Vector2) getValue(nodes.get(connection.fromNode), params);
-                        ((SizeToData) actionData).setEndWidth(pos.x);
-                        ((SizeToData) actionData).setEndHeight(pos.y);
-                        break;
-                }
-            }
-        }
-
-        if (actionData instanceof SizeByData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "size":
-                        Vector2 pos = (Vector2) getValue(nodes.get(connection.fromNode), params);
-                        ((SizeByData) actionData).setAmountWidth(pos.x);
-                        ((SizeByData) actionData).setAmountHeight(pos.y);
-                        break;
-                }
-            }
-        }
+    /**
+     * Walks the graph once: constant values are parsed here, {@code ValueParam}s are left as slots bound on every
+     * {@link ActionTemplate#newActionData(boolean, ObjectMap, ActionEventListener)}.
+     */
+    private ActionTemplate compile(GraphNodeVO node, Map<String, List<GraphConnectionVO>> toNodeConnections,
+                                   Map<String, GraphNodeVO> nodes) {
+        ActionTemplate template = new ActionTemplate(mapTypeToActionClass(node.type));
+        if (template.type == null)
+            return template;
 
-        if (actionData instanceof ScaleToData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "scale":
-                        Vector2 pos = (Vector2) getValue(nodes.get(connection.fromNode), params);
-                        ((ScaleToData) actionData).setEndX(pos.x);
-                        ((ScaleToData) actionData).setEndY(pos.y);
-                        break;
-                }
-            }
-        }
-
-        if (actionData instanceof ScaleByData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "scale":
-                        Vector2 pos = (Vector2) getValue(nodes.get(connection.fromNode), params);
-                        ((ScaleByData) actionData).setAmountX(pos.x);
-                        ((ScaleByData) actionData).setAmountY(pos.y);
-                        break;
-                }
-            }
-        }
-
-        if (actionData instanceof ColorData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "color":
-                        ((ColorData) actionData).setEndColor((Color) getValue(nodes.get(connection.fromNode), params));
-                        break;
-                }
-            }
-        }
-
-        if (actionData instanceof AlphaData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "alpha":
-                        ((AlphaData) actionData).setEnd((Float) getValue(nodes.get(connection.fromNode), params));
-                        break;
-                }
-            }
+        switch (node.type) {
+            case "FadeInAction":
+                template.addSlot(ActionTemplate.ALPHA, 1f, null);
+                break;
+            case "FadeOutAction":
+                template.addSlot(ActionTemplate.ALPHA, 0f, null);
+                break;
+            case "ForeverAction":
+                template.addSlot(ActionTemplate.COUNT, RepeatData.FOREVER, null);
+                break;
         }
 
-        if (actionData instanceof DelayData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "delay":
-                        ((DelayData) actionData).setDuration((Float) getValue(nodes.get(connection.fromNode), params));
-                        break;
-                }
+        List<GraphConnectionVO> connections = toNodeConnections.get(node.id);
+        for (GraphConnectionVO inConnection : connections) {
+            if (inConnection.toField.contains("action")) {
+                template.subActions.add(compile(nodes.get(inConnection.fromNode), toNodeConnections, nodes));
             }
         }
 
-        if (actionData instanceof RepeatData) {
-            for (GraphConnectionVO connection : connections) {
-                switch (connection.toField) {
-                    case "count":
-                        int count = (int) getValue(nodes.get(connection.fromNode), params);
-                        ((RepeatData) actionData).setRepeatCount(count);
-                        break;
-                }
-            }
+        // same order as the setters were applied when walking the graph on every load
+        Class<? extends ActionData> type = template.type;
+        if (ClassReflection.isAssignableFrom(TemporalData.class, type)) {
+            compileSlots(template, ActionTemplate.DURATION, "duration", connections, nodes);
+            compileSlots(template, ActionTemplate.INTERPOLATION, "interpolation", connections, nodes);
         }
+        if (type == MoveToData.class)
+            compileSlots(template, ActionTemplate.MOVE_TO, "position", connections, nodes);
+        if (type == MoveByData.class)
+            compileSlots(template, ActionTemplate.MOVE_BY, "position", connections, nodes);
+        if (type == RotateToData.class)
+            compileSlots(template, ActionTemplate.ROTATE_TO, "degree", connections, nodes);
+        if (type == RotateByData.class)
+            compileSlots(template, ActionTemplate.ROTATE_BY, "degree", connections, nodes);
+        if (type == SizeToData.class)
+            compileSlots(template, ActionTemplate.SIZE_TO, "size", connections, nodes);
+        if (type == SizeByData.class)
+            compileSlots(template, ActionTemplate.SIZE_BY, "size", connections, nodes);
+        if (type == ScaleToData.class)
+            compileSlots(template, ActionTemplate.SCALE_TO, "scale", connections, nodes);
+        if (type == ScaleByData.class)
+            compileSlots(template, ActionTemplate.SCALE_BY, "scale", connections, nodes);
+        if (type == ColorData.class)
+            compileSlots(template, ActionTemplate.COLOR, "color", connections, nodes);
+        if (type == AlphaData.class)
+            compileSlots(template, ActionTemplate.ALPHA, "alpha", connections, nodes);
+        if (type == DelayData.class)
+            compileSlots(template, ActionTemplate.DELAY, "delay", connections, nodes);
+        if (type == RepeatData.class)
+            compileSlots(template, ActionTemplate.COUNT, "count", connections, nodes);
+
+        if (type == RunnableData.class)
+            template.eventName = node.data.get("v");
+
+        return template;
     }
 
-    private void addActionDataValueParameter(GraphNodeVO node, ActionData actionData, final ActionEventListener listener) {
-        if (actionData instanceof RunnableData) {
-            final String eventName = (String) node.data.get("v");
-            if (listener != null) {
-                ((RunnableData) actionData).setRunnable(new Runnable() {
-                    @Override
-                    public void run() {
-                        listener.onActionEvent(eventName);
-                    }
-                });
-            }
+    private void compileSlots(ActionTemplate template, int setter, String field, List<GraphConnectionVO> connections,
+                              Map<String, GraphNodeVO> nodes) {
+        for (GraphConnectionVO connection : connections) {
+            if (!connection.toField.equals(field))
+                continue;
+
+            GraphNodeVO valueNode = nodes.get(connection.fromNode);
+            if (valueNode.type.equals("ValueParam"))
+                template.addSlot(setter, null, valueNode.data.get("v"));
+            else
+                template.addSlot(setter, getValue(valueNode), null);
         }
     }
 
-    private Object getValue(GraphNodeVO node, ObjectMap<String, Object> params) {
+    private Object getValue(GraphNodeVO node) {
         switch (node.type) {
             case "ValueBoolean":
                 return node.data.get("v") != null;
@@ -300,59 +189,46 @@ public class ActionFactory {
                 return new Vector2(Float.parseFloat(node.data.get("v1")), Float.parseFloat(node.data.get("v2")));
             case "ValueInterpolation":
                 return InterpolationMap.map.get(node.data.get("interpolation"));
-            case "ValueParam":
-                if (params == null || params.get(node.data.get("v")) == null)
-                    throw new IllegalArgumentException("Custom parameter '" + node.data.get("v") + "' not found.");
-                return params.get(node.data.get("v"));
             default:
                 return null;
         }
     }
 
-    private ActionData mapTypeToActionData(String nodeType, boolean autoPoolable) {
+    private Class<? extends ActionData> mapTypeToActionClass(String nodeType) {
         switch (nodeType) {
             case "AlphaAction":
-                return Actions.actionData(AlphaData.class, autoPoolable);
-            case "ColorAction":
-                return Actions.actionData(ColorData.class, autoPoolable);
-            case "DelayAction":
-                return Actions.actionData(DelayData.class, autoPoolable);
             case "FadeInAction":
-                AlphaData fadeIn = Actions.actionData(AlphaData.class, autoPoolable);
-                fadeIn.setEnd(1);
-                return fadeIn;
             case "FadeOutAction":
-                AlphaData fadeOut = Actions.actionData(AlphaData.class, autoPoolable);
-                fadeOut.setEnd(0);
-                return fadeOut;
+                return AlphaData.class;
+            case "ColorAction":
+                return ColorData.class;
+            case "DelayAction":
+                return DelayData.class;
             case "ForeverAction":
-                RepeatData actionData = Actions.actionData(RepeatData.class, autoPoolable);
-                actionData.setRepeatCount(RepeatData.FOREVER);
-                return actionData;
+            case "RepeatAction":
+                return RepeatData.class;
             case "MoveByAction":
-                return Actions.actionData(MoveByData.class, autoPoolable);
+                return MoveByData.class;
             case "MoveToAction":
-                return Actions.actionData(MoveToData.class, autoPoolable);
+                return MoveToData.class;
             case "ParallelAction":
-                return Actions.actionData(ParallelData.class, autoPoolable);
-            case "RepeatAction":
-                return Actions.actionData(RepeatData.class, autoPoolable);
+                return ParallelData.class;
             case "RotateByAction":
-                return Actions.actionData(RotateByData.class, autoPoolable);
+                return RotateByData.class;
             case "RotateToAction":
-                return Actions.actionData(RotateToData.class, autoPoolable);
+                return RotateToData.class;
             case "ScaleByAction":
-                return Actions.actionData(ScaleByData.class, autoPoolable);
+                return ScaleByData.class;
             case "SequenceAction":
-                return Actions.actionData(SequenceData.class, autoPoolable);
+                return SequenceData.class;
             case "SizeByAction":
-                return Actions.actionData(SizeByData.class, autoPoolable);
+                return SizeByData.class;
             case "SizeToAction":
-                return Actions.actionData(SizeToData.class, autoPoolable);
+                return SizeToData.class;
             case "ScaleToAction":
-                return Actions.actionData(ScaleToData.class, autoPoolable);
+                return ScaleToData.class;
             case "EventAction":
-                return Actions.actionData(RunnableData.class, autoPoolable);
+                return RunnableData.class;
             default:
                 return null;
         }
@@ -362,9 +238,143 @@ public class ActionFactory {
         actionsCache.clear();
     }
 
-    private static class GraphCache {
-        GraphNodeVO rootNode;
-        Map<String, List<GraphConnectionVO>> toNodeConnections;
-        Map<String, GraphNodeVO> nodes;
+    /**
+     * Immutable compiled library action: the data type, the compiled sub actions and the parameter slots, either
+     * constants parsed once or names of custom parameters bound at load time.
+     */
+    private static class ActionTemplate {
+        static final int DURATION = 0;
+        static final int INTERPOLATION = 1;
+        static final int MOVE_TO = 2;
+        static final int MOVE_BY = 3;
+        static final int ROTATE_TO = 4;
+        static final int ROTATE_BY = 5;
+        static final int SIZE_TO = 6;
+        static final int SIZE_BY = 7;
+        static final int SCALE_TO = 8;
+        static final int SCALE_BY = 9;
+        static final int COLOR = 10;
+        static final int ALPHA = 11;
+        static final int DELAY = 12;
+        static final int COUNT = 13;
+
+        /** Null for unknown node types, loaded as null like before. */
+        final Class<? extends ActionData> type;
+        final Array<ActionTemplate> subActions = new Array<>();
+        final IntArray setters = new IntArray();
+        final Array<Object> constants = new Array<>();
+        final Array<String> paramNames = new Array<>();
+        String eventName;
+
+        ActionTemplate(Class<? extends ActionData> type) {
+            this.type = type;
+        }
+
+        void addSlot(int setter, Object constant, String paramName) {
+            setters.add(setter);
+            constants.add(constant);
+            paramNames.add(paramName);
+        }
+
+        ActionData newActionData(boolean autoPoolable, ObjectMap<String, Object> params, final ActionEventListener listener) {
+            if (type == null)
+                return null;
+
+            ActionData actionData = Actions.actionData(type, autoPoolable);
+
+            for (ActionTemplate subAction : subActions) {
+                ActionData subActionData = subAction.newActionData(autoPoolable, params, listener);
+                if (actionData instanceof DelegateData) {
+                    ((DelegateData) actionData).setDelegatedAction(subActionData);
+                }
+
+                if (actionData instanceof ParallelData) {
+                    ((ParallelData) actionData).actionsData.add(subActionData);
+                }
+            }
+
+            for (int i = 0; i < setters.size; i++) {
+                Object value = constants.get(i);
+                String paramName = paramNames.get(i);
+                if (paramName != null) {
+                    if (params == null || params.get(paramName) == null)
+                        throw new IllegalArgumentException("Custom parameter '" + paramName + "' not found.");
+                    value = params.get(paramName);
+                }
+                set(actionData, setters.get(i), value);
+            }
+
+            if (eventName != null && listener != null) {
+                final String eventName = this.eventName;
+                ((RunnableData) actionData).setRunnable(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onActionEvent(eventName);
+                    }
+                });
+            }
+
+            return actionData;
+        }
+
+        private void set(ActionData actionData, int setter, Object value) {
+            Vector2 vector;
+            switch (setter) {
+                case DURATION:
+                    ((TemporalData) actionData).setDuration((Float) value);
+                    break;
+                case INTERPOLATION:
+                    ((TemporalData) actionData).setInterpolation((Interpolation) value);
+                    break;
+                case MOVE_TO:
+                    vector = (Vector2) value;
+                    ((MoveToData) actionData).setEndX(vector.x);
+                    ((MoveToData) actionData).setEndY(vector.y);
+                    break;
+                case MOVE_BY:
+                    vector = (Vector2) value;
+                    ((MoveByData) actionData).setAmountX(vector.x);
+                    ((MoveByData) actionData).setAmountY(vector.y);
+                    break;
+                case ROTATE_TO:
+                    ((RotateToData) actionData).setEnd((Float) value);
+                    break;
+                case ROTATE_BY:
+                    ((RotateByData) actionData).setAmount((Float) value);
+                    break;
+                case SIZE_TO:
+                    vector = (Vector2) value;
+                    ((SizeToData) actionData).setEndWidth(vector.x);
+                    ((SizeToData) actionData).setEndHeight(vector.y);
+                    break;
+                case SIZE_BY:
+                    vector = (Vector2) value;
+                    ((SizeByData) actionData).setAmountWidth(vector.x);
+                    ((SizeByData) actionData).setAmountHeight(vector.y);
+                    break;
+                case SCALE_TO:
+                    vector = (Vector2) value;
+                    ((ScaleToData) actionData).setEndX(vector.x);
+                    ((ScaleToData) actionData).setEndY(vector.y);
+                    break;
+                case SCALE_BY:
+                    vector = (Vector2) value;
+                    ((ScaleByData) actionData).setAmountX(vector.x);
+                    ((ScaleByData) actionData).setAmountY(vector.y);
+                    break;
+                case COLOR:
+                    ((ColorData) actionData).setEndColor((Color) value);
+                    break;
+                case ALPHA:
+                    ((AlphaData) actionData).setEnd((Float) value);
+                    break;
+                case DELAY:
+                    ((DelayData) actionData).setDuration((Float) value);
+                    break;
+                case COUNT:
+                    ((RepeatData) actionData).setRepeatCount((int) value);
+                    break;
+            }
+        }
     }
 }
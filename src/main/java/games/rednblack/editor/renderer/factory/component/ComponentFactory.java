@@ -168,7 +168,7 @@ public abstract class ComponentFactory {
     protected void initializeZIndexComponent(ZIndexComponent component, MainItemVO vo) {
         if (vo.layerName == null || vo.layerName.isEmpty()) vo.layerName = "Default";
 
-        component.layerName = vo.layerName;
+        component.setLayerName(vo.layerName);
         component.setZIndex(vo.zIndex);
         component.needReOrder = false;
     }
@@ -272,12 +272,12 @@ public abstract class ComponentFactory {
 
     protected void createNodeComponent(int root, int entity) {
         NodeComponent component = nodeCM.get(root);
-        component.children.add(entity);
+        component.addChild(entity);
     }
 
     protected void adjustNodeHierarchy(int root, int entity) {
         // Add this component to it's parents children references
-        nodeCM.get(root).children.add(entity);
+        nodeCM.get(root).addChild(entity);
         // Set the entity's parent reference to it's parent
         parentNodeCM.get(entity).parentEntity=root;
     }
@@ -34,6 +34,11 @@ public class PhysicsBodyLoader {
     public final PolygonShape tmpShape = new PolygonShape();
     private final ObjectMap<Integer, float[]> verticesCache = new ObjectMap<>();
 
+    private final BodyDef bodyDef = new BodyDef();
+    private final FixtureDef fixtureDef = new FixtureDef();
+    private final FixtureDef sensorFixtureDef = new FixtureDef();
+    private final MassData massData = new MassData();
+
     public static PhysicsBodyLoader getInstance() {
         if (instance == null) {
             instance = new PhysicsBodyLoader();
@@ -49,9 +54,8 @@ public class PhysicsBodyLoader {
             return null;
         }
 
-        FixtureDef fixtureDef = physicsComponent.createFixtureDef();
+        physicsComponent.setFixtureDef(fixtureDef);
 
-        BodyDef bodyDef = new BodyDef();
         tmp.set(transformComponent.originX, transformComponent.originY);
         TransformMathUtils.localToSceneCoordinates(entity, tmp);
         bodyDef.position.set(tmp.x, tmp.y);
@@ -83,7 +87,6 @@ public class PhysicsBodyLoader {
         }
 
         if (physicsComponent.mass != 0) {
-            MassData massData = new MassData();
             massData.mass = physicsComponent.mass;
             massData.center.set(physicsComponent.centerOfMass);
             massData.I = physicsComponent.rotationalInertia;
@@ -109,7 +112,7 @@ public class PhysicsBodyLoader {
      * @author Jan-Thierry Wegener
      */
     private void createSensors(Body body, SensorComponent sensorComponent, DimensionsComponent dimensionsComponent, TransformComponent transformComponent) {
-        FixtureDef sensorFix = new FixtureDef();
+        FixtureDef sensorFix = sensorFixtureDef;
         sensorFix.isSensor = true;
         sensorFix.shape = tmpShape;
 
@@ -157,34 +160,27 @@ public class PhysicsBodyLoader {
     }
 
     private void createPolygonShape(Body body, FixtureDef fixtureDef, TransformComponent transformComponent, PhysicsBodyComponent physicsComponent, Vector2[][] minPolygonData) {
-        float scaleX = transformComponent.scaleX * (transformComponent.flipX ? -1 : 1);
-        float scaleY = transformComponent.scaleY * (transformComponent.flipY ? -1 : 1);
-
+        fixtureDef.shape = tmpShape;
         for (Vector2[] minPolygonDatum : minPolygonData) {
             float[] verts = getVerticesArray(minPolygonDatum.length * 2);
-            for (int j = 0; j < verts.length; j += 2) {
-                float tempX = minPolygonDatum[j / 2].x;
-                float tempY = minPolygonDatum[j / 2].y;
-
-                minPolygonDatum[j / 2].x -= transformComponent.originX;
-                minPolygonDatum[j / 2].y -= transformComponent.originY;
-
-                minPolygonDatum[j / 2].x *= scaleX;
-                minPolygonDatum[j / 2].y *= scaleY;
-
-                verts[j] = minPolygonDatum[j / 2].x;
-                verts[j + 1] = minPolygonDatum[j / 2].y;
-
-                minPolygonDatum[j / 2].x = tempX;
-                minPolygonDatum[j / 2].y = tempY;
-
-            }
-
-            fixtureDef.shape = tmpShape;
+            computeVertices(minPolygonDatum, transformComponent, verts);
             tmpShape.set(verts);
+            // light data keeps per fixture state, it can't be shared
             body.createFixture(fixtureDef).setUserData(new LightData(physicsComponent.height));
         }
+    }
+
+    /**
+     * Offsets the polygon by the origin and scales it by the transform into the given array.
+     */
+    public void computeVertices(Vector2[] minPolygonDatum, TransformComponent transformComponent, float[] verts) {
+        float scaleX = transformComponent.scaleX * (transformComponent.flipX ? -1 : 1);
+        float scaleY = transformComponent.scaleY * (transformComponent.flipY ? -1 : 1);
 
+        for (int j = 0; j < minPolygonDatum.length; j++) {
+            verts[j * 2] = (minPolygonDatum[j].x - transformComponent.originX) * scaleX;
+            verts[j * 2 + 1] = (minPolygonDatum[j].y - transformComponent.originY) * scaleY;
+        }
     }
 
     public float[] getVerticesArray(int size) {
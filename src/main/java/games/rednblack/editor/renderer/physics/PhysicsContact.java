@@ -17,7 +17,9 @@ public interface PhysicsContact {
      * @param contactEntity  Entity of the object which contact has begun
      * @param contactFixture Fixture of the object's body which contact has begun
      * @param ownFixture     Fixture of this object
-     * @param contact        Box2D Contact data
+     * @param contact        Box2D Contact data, null when contacts are buffered, see
+     *                       {@link games.rednblack.editor.renderer.systems.PhysicsSystem#setBufferContacts(boolean)}
+     *                       and {@link games.rednblack.editor.renderer.systems.PhysicsSystem#setAsyncStep(boolean)}
      */
     void beginContact(int contactEntity, Fixture contactFixture, Fixture ownFixture, Contact contact);
 
@@ -27,14 +29,28 @@ public interface PhysicsContact {
      * @param contactEntity  Entity of the object which contact has end
      * @param contactFixture Fixture of the object's body which contact has end
      * @param ownFixture     Fixture of this object
-     * @param contact        Box2D Contact data
+     * @param contact        Box2D Contact data, null when contacts are buffered, see
+     *                       {@link games.rednblack.editor.renderer.systems.PhysicsSystem#setBufferContacts(boolean)}
+     *                       and {@link games.rednblack.editor.renderer.systems.PhysicsSystem#setAsyncStep(boolean)}
      */
     void endContact(int contactEntity, Fixture contactFixture, Fixture ownFixture, Contact contact);
 
+    /**
+     * Pre and post solve callbacks run for every touching contact at every step: scripts that leave them empty
+     * should return false, when no script needs them they are skipped entirely.
+     * See also {@link games.rednblack.editor.renderer.systems.PhysicsSystem#setSolveCategoryMask(short)}.
+     *
+     * @return true to receive {@link #preSolve} and {@link #postSolve}, the default
+     */
+    default boolean needsSolveCallbacks() {
+        return true;
+    }
+
     /**
      * Called when two bodies overlap but not collides yet, useful when custom
      * collisions have to be applied in some cases. A classic example of this is the one-way wall or platform,
      * where the player is able to pass through an otherwise solid object.
+     * Not called if {@link #needsSolveCallbacks()} returns false.
      *
      * @param contactEntity  Entity of the object which contact has begun
      * @param contactFixture Fixture of the object's body which contact has begun
@@ -45,6 +61,7 @@ public interface PhysicsContact {
 
     /**
      * Called after a collision has been calculated and applied.
+     * Not called if {@link #needsSolveCallbacks()} returns false.
      *
      * @param contactEntity  Entity of the object which contact has end
      * @param contactFixture Fixture of the object's body which contact has end
@@ -7,9 +7,11 @@ import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import games.rednblack.editor.renderer.components.*;
 import games.rednblack.editor.renderer.utils.TransformMathUtils;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
 
 @All(BoundingBoxComponent.class)
-public class BoundingBoxSystem extends IteratingSystem {
+public class BoundingBoxSystem extends IteratingSystem implements ConcurrentSystem {
 
     protected ComponentMapper<DimensionsComponent> dimensionsMapper;
     protected ComponentMapper<ParentNodeComponent> parentNodeMapper;
@@ -88,4 +90,11 @@ public class BoundingBoxSystem extends IteratingSystem {
         }
         return checksum;
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.read(ParentNodeComponent.class, MainItemComponent.class)
+                .write(DimensionsComponent.class, TransformComponent.class, BoundingBoxComponent.class)
+                .mainThread();
+    }
 }
@@ -1,19 +1,40 @@
 package games.rednblack.editor.renderer.systems;
 
+import com.artemis.BaseEntitySystem;
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
-import com.artemis.systems.IteratingSystem;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
 import games.rednblack.editor.renderer.components.*;
 import games.rednblack.editor.renderer.components.additional.ButtonComponent;
+import games.rednblack.editor.renderer.systems.event.ButtonEvent;
+import games.rednblack.editor.renderer.systems.event.EntityEventBus;
 import games.rednblack.editor.renderer.utils.TransformMathUtils;
 
+import java.util.Arrays;
+
 /**
  * Created by azakhary on 8/1/2015.
+ * <p>
+ * Buttons are only updated on touch events: add {@link #getInputProcessor()} to the application input processors
+ * (e.g. with an {@link com.badlogic.gdx.InputMultiplexer}). Until then the first pointer is polled once per frame
+ * and its changes are turned into the same events.
+ * <p>
+ * A touch presses the topmost visible button under the pointer, culled buttons are skipped without hit testing.
+ * State changes are notified to the button listeners and posted as {@link ButtonEvent}s.
  */
 @All(ButtonComponent.class)
-public class ButtonSystem extends IteratingSystem {
+public class ButtonSystem extends BaseEntitySystem {
+
+    private static final int TOUCH_DOWN = 0;
+    private static final int TOUCH_DRAGGED = 1;
+    private static final int TOUCH_UP = 2;
+    private static final int MAX_POINTERS = 20;
 
     protected ComponentMapper<ButtonComponent> buttonComponentMapper;
     protected ComponentMapper<DimensionsComponent> dimensionsComponentMapper;
@@ -21,63 +42,233 @@ public class ButtonSystem extends IteratingSystem {
     protected ComponentMapper<MainItemComponent> mainItemComponentMapper;
     protected ComponentMapper<ViewPortComponent> viewPortComponentMapper;
     protected ComponentMapper<ZIndexComponent> zIndexComponentMapper;
+    protected ComponentMapper<ParentNodeComponent> parentNodeComponentMapper;
 
-    @Override
-    protected void process(int entity) {
-        NodeComponent nodeComponent = nodeComponentMapper.get(entity);
+    @Wire(failOnNull = false)
+    protected CullingSystem cullingSystem;
+    @Wire(failOnNull = false)
+    protected EntityEventBus eventBus;
 
-        if (nodeComponent == null) return;
+    /** type, pointer, screenX, screenY */
+    private final IntArray events = new IntArray();
+    /** Button pressed by each pointer, -1 if none. */
+    private final int[] pressedButtons = new int[MAX_POINTERS];
 
-        for (int i = 0; i < nodeComponent.children.size; i++) {
-            Integer childEntity = nodeComponent.children.get(i);
-            MainItemComponent childMainItemComponent = mainItemComponentMapper.get(childEntity);
-            childMainItemComponent.visible = true;
+    private final Vector2 localCoordinates = new Vector2();
+    private final IntArray pathA = new IntArray();
+    private final IntArray pathB = new IntArray();
+
+    private boolean polling = true;
+    private boolean polledTouched;
+    private int polledX, polledY;
+
+    private final InputProcessor inputProcessor = new InputAdapter() {
+        @Override
+        public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+            return queue(TOUCH_DOWN, pointer, screenX, screenY);
         }
 
-        ViewPortComponent camera = viewPortComponentMapper.get(entity);
-        if (camera != null) {
-            // if camera is on this entity, then it should not be processed
-            return;
+        @Override
+        public boolean touchDragged(int screenX, int screenY, int pointer) {
+            return queue(TOUCH_DRAGGED, pointer, screenX, screenY);
         }
 
+        @Override
+        public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+            return queue(TOUCH_UP, pointer, screenX, screenY);
+        }
+    };
 
-        for (int i = 0; i < nodeComponent.children.size; i++) {
-            Integer childEntity = nodeComponent.children.get(i);
-            MainItemComponent childMainItemComponent = mainItemComponentMapper.get(childEntity);
-            ZIndexComponent childZComponent = zIndexComponentMapper.get(childEntity);
-            if (isTouched(entity)) {
-                if (childZComponent.layerName.equals("normal")) {
-                    childMainItemComponent.visible = false;
-                }
-                if (childZComponent.layerName.equals("pressed")) {
-                    childMainItemComponent.visible = true;
-                }
-            } else {
-                if (childZComponent.layerName.equals("normal")) {
-                    childMainItemComponent.visible = true;
-                }
-                if (childZComponent.layerName.equals("pressed")) {
-                    childMainItemComponent.visible = false;
-                }
+    public ButtonSystem() {
+        Arrays.fill(pressedButtons, -1);
+    }
+
+    /**
+     * Input processor feeding the buttons, disables polling once requested. Events are not consumed.
+     */
+    public InputProcessor getInputProcessor() {
+        polling = false;
+        return inputProcessor;
+    }
+
+    private boolean queue(int type, int pointer, int screenX, int screenY) {
+        if (pointer < MAX_POINTERS)
+            events.add(type, pointer, screenX, screenY);
+        return false;
+    }
+
+    @Override
+    protected void inserted(int entity) {
+        updateLayers(entity, buttonComponentMapper.get(entity).isTouched);
+    }
+
+    @Override
+    protected void removed(int entity) {
+        for (int i = 0; i < MAX_POINTERS; i++) {
+            if (pressedButtons[i] == entity)
+                pressedButtons[i] = -1;
+        }
+    }
+
+    @Override
+    protected void processSystem() {
+        if (polling)
+            poll();
+
+        if (events.size == 0)
+            return;
+
+        int[] items = events.items;
+        for (int i = 0; i < events.size; i += 4) {
+            int type = items[i];
+            int pointer = items[i + 1];
+            int pressed = pressedButtons[pointer];
+
+            if (type == TOUCH_UP) {
+                release(pointer);
+                continue;
+            }
+
+            int hit = pick(items[i + 2], items[i + 3]);
+            if (hit == pressed)
+                continue;
+
+            release(pointer);
+            if (hit != -1) {
+                pressedButtons[pointer] = hit;
+                setTouchState(hit, true);
             }
         }
+        events.clear();
+    }
 
+    private void poll() {
+        boolean touched = Gdx.input.isTouched();
+        int x = Gdx.input.getX();
+        int y = Gdx.input.getY();
+        if (touched && !polledTouched)
+            queue(TOUCH_DOWN, 0, x, y);
+        else if (touched && (x != polledX || y != polledY))
+            queue(TOUCH_DRAGGED, 0, x, y);
+        else if (!touched && polledTouched)
+            queue(TOUCH_UP, 0, polledX, polledY);
+        polledTouched = touched;
+        polledX = x;
+        polledY = y;
     }
 
-    private boolean isTouched(Integer entity) {
+    private void release(int pointer) {
+        int pressed = pressedButtons[pointer];
+        if (pressed == -1)
+            return;
+
+        pressedButtons[pointer] = -1;
+        for (int i = 0; i < MAX_POINTERS; i++) {
+            // still held by another pointer
+            if (pressedButtons[i] == pressed)
+                return;
+        }
+        setTouchState(pressed, false);
+    }
+
+    private void setTouchState(int entity, boolean touched) {
         ButtonComponent buttonComponent = buttonComponentMapper.get(entity);
-        if (Gdx.input.isTouched()) {
-            DimensionsComponent dimensionsComponent = dimensionsComponentMapper.get(entity);
-            Vector2 localCoordinates = new Vector2(Gdx.input.getX(), Gdx.input.getY());
+        if (buttonComponent.isTouched == touched)
+            return;
+        buttonComponent.setTouchState(touched);
+        updateLayers(entity, touched);
 
+        if (eventBus != null) {
+            post(entity, touched ? ButtonEvent.TOUCH_DOWN : ButtonEvent.TOUCH_UP);
+            if (!touched)
+                post(entity, ButtonEvent.CLICKED);
+        }
+    }
+
+    private void post(int entity, int type) {
+        ButtonEvent event = eventBus.obtain(ButtonEvent.class);
+        event.entity = entity;
+        event.type = type;
+        eventBus.post(event);
+    }
+
+    /**
+     * @return the topmost button under the given screen position, -1 if none
+     */
+    private int pick(int screenX, int screenY) {
+        IntBag buttons = subscription.getEntities();
+        int[] ids = buttons.getData();
+        int top = -1;
+        for (int i = 0, n = buttons.size(); i < n; i++) {
+            int entity = ids[i];
+            if (viewPortComponentMapper.has(entity) || !nodeComponentMapper.has(entity))
+                continue;
+            MainItemComponent mainItemComponent = mainItemComponentMapper.get(entity);
+            if (mainItemComponent != null && !mainItemComponent.visible)
+                continue;
+            if (cullingSystem != null && cullingSystem.isCulled(entity))
+                continue;
+
+            localCoordinates.set(screenX, screenY);
             TransformMathUtils.globalToLocalCoordinates(entity, localCoordinates);
+            if (!dimensionsComponentMapper.get(entity).hit(localCoordinates.x, localCoordinates.y))
+                continue;
 
-            if (dimensionsComponent.hit(localCoordinates.x, localCoordinates.y)) {
-                buttonComponent.setTouchState(true);
-                return true;
+            if (top == -1 || isDrawnAfter(entity, top))
+                top = entity;
+        }
+        return top;
+    }
+
+    /**
+     * Compares the draw order of two entities: descendants are drawn after their ancestors and siblings in the order
+     * of their parent's children, sorted by {@link LayerSystem}.
+     */
+    private boolean isDrawnAfter(int entity, int other) {
+        buildPath(entity, pathA);
+        buildPath(other, pathB);
+
+        int depth = 0;
+        int common = Math.min(pathA.size, pathB.size);
+        while (depth < common && pathA.get(depth) == pathB.get(depth))
+            depth++;
+
+        if (depth == common)
+            return pathA.size > pathB.size;
+        if (depth == 0)
+            return false;
+
+        NodeComponent parent = nodeComponentMapper.get(pathA.get(depth - 1));
+        return parent.children.indexOf(pathA.get(depth)) > parent.children.indexOf(pathB.get(depth));
+    }
+
+    /**
+     * Fills the path from the root to the entity.
+     */
+    private void buildPath(int entity, IntArray path) {
+        path.clear();
+        while (entity != -1) {
+            path.add(entity);
+            ParentNodeComponent parentNodeComponent = parentNodeComponentMapper.get(entity);
+            entity = parentNodeComponent != null ? parentNodeComponent.parentEntity : -1;
+        }
+        path.reverse();
+    }
+
+    private void updateLayers(int entity, boolean touched) {
+        NodeComponent nodeComponent = nodeComponentMapper.get(entity);
+        if (nodeComponent == null || viewPortComponentMapper.has(entity)) return;
+
+        for (int i = 0; i < nodeComponent.children.size; i++) {
+            int childEntity = nodeComponent.children.get(i);
+            MainItemComponent childMainItemComponent = mainItemComponentMapper.get(childEntity);
+            ZIndexComponent childZComponent = zIndexComponentMapper.get(childEntity);
+            if (childZComponent.layerName.equals("normal")) {
+                childMainItemComponent.visible = !touched;
+            }
+            if (childZComponent.layerName.equals("pressed")) {
+                childMainItemComponent.visible = touched;
             }
         }
-        buttonComponent.setTouchState(false);
-        return false;
     }
 }
@@ -5,12 +5,14 @@ import com.artemis.annotations.All;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.math.Matrix3;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.SnapshotArray;
 import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 import games.rednblack.editor.renderer.utils.TransformMathUtils;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
 
 @All(CompositeTransformComponent.class)
-public class CompositeSystem extends IteratingSystem {
+public class CompositeSystem extends IteratingSystem implements ConcurrentSystem {
 
     protected ComponentMapper<DimensionsComponent> dimensionsMapper;
     protected ComponentMapper<TransformComponent> transformMapper;
@@ -48,7 +50,13 @@ public class CompositeSystem extends IteratingSystem {
         if (compositeTransformComponent != null) {
 
             if (compositeTransformComponent.automaticResize && viewPortComponent == null) {
-                recalculateSize();
+                int hash = calcChildrenHash();
+                if (compositeTransformComponent.needsResize || hash != compositeTransformComponent.childrenHash) {
+                    recalculateSize();
+                    // Children may have been shifted by the resize
+                    compositeTransformComponent.childrenHash = calcChildrenHash();
+                    compositeTransformComponent.needsResize = false;
+                }
             }
 
             compositeTransformComponent.clipBounds.set(transformComponent.x, transformComponent.y, dimensionsComponent.width, dimensionsComponent.height);
@@ -60,8 +68,10 @@ public class CompositeSystem extends IteratingSystem {
         float lowerY = Float.MAX_VALUE;
         float upperX = Float.MIN_VALUE;
         float upperY = Float.MIN_VALUE;
-        SnapshotArray<Integer> entities = nodeComponent.children;
-        for (Integer entity : entities) {
+        SnapshotIntArray entities = nodeComponent.children;
+        int[] children = entities.begin();
+        for (int i = 0, n = entities.size; i < n; i++) {
+            int entity = children[i];
             TransformComponent transformComponent = transformMapper.get(entity);
             DimensionsComponent childDimCom = dimensionsMapper.get(entity);
             float x = transformComponent.x;
@@ -89,12 +99,14 @@ public class CompositeSystem extends IteratingSystem {
             upperY = getY(MinMaxOp.MAX, tmpVectorArray);
         }
 
-        for (Integer entity : entities) {
+        for (int i = 0, n = entities.size; i < n; i++) {
             if (lowerX == 0 && lowerY == 0) break;
+            int entity = children[i];
             TransformComponent transformComponent = transformMapper.get(entity);
             transformComponent.x -= lowerX;
             transformComponent.y -= lowerY;
         }
+        entities.end();
 
         dimensionsComponent.width = Math.max((upperX - lowerX), 0);
         dimensionsComponent.height = Math.max((upperY - lowerY), 0);
@@ -103,6 +115,33 @@ public class CompositeSystem extends IteratingSystem {
         dimensionsComponent.boundBox.set(lowerX, lowerY, dimensionsComponent.width, dimensionsComponent.height);
     }
 
+    /**
+     * Cheap fingerprint of everything that affects the composite size, so that
+     * {@link #recalculateSize()} runs only when a child moved, resized or the children list changed.
+     */
+    private int calcChildrenHash() {
+        SnapshotIntArray entities = nodeComponent.children;
+        int hash = entities.size;
+        int[] children = entities.items;
+        for (int i = 0, n = entities.size; i < n; i++) {
+            int entity = children[i];
+            TransformComponent t = transformMapper.get(entity);
+            DimensionsComponent d = dimensionsMapper.get(entity);
+
+            hash = 31 * hash + entity;
+            hash = 31 * hash + Float.floatToIntBits(t.x);
+            hash = 31 * hash + Float.floatToIntBits(t.y);
+            hash = 31 * hash + Float.floatToIntBits(t.scaleX * (t.flipX ? -1 : 1));
+            hash = 31 * hash + Float.floatToIntBits(t.scaleY * (t.flipY ? -1 : 1));
+            hash = 31 * hash + Float.floatToIntBits(t.rotation);
+            hash = 31 * hash + Float.floatToIntBits(t.originX);
+            hash = 31 * hash + Float.floatToIntBits(t.originY);
+            hash = 31 * hash + Float.floatToIntBits(d.width);
+            hash = 31 * hash + Float.floatToIntBits(d.height);
+        }
+        return hash;
+    }
+
     private float getX(MinMaxOp op, Vector2[] points) {
         float pointX = points[0].x;
         for (Vector2 point : points) {
@@ -142,4 +181,11 @@ public class CompositeSystem extends IteratingSystem {
 
         public abstract float compare(float a, float b);
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.read(NodeComponent.class, ViewPortComponent.class)
+                .write(TransformComponent.class, DimensionsComponent.class, CompositeTransformComponent.class)
+                .mainThread();
+    }
 }
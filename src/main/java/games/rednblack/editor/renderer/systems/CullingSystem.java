@@ -3,14 +3,24 @@ package games.rednblack.editor.renderer.systems;
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
 import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Bits;
 import games.rednblack.editor.renderer.components.*;
 import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
-
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
+
+/**
+ * Computes a visibility set for every {@link ViewPortComponent} camera.
+ * Each camera walks the bounding box hierarchy of its root once and stores the culled entities
+ * in {@link ViewPortComponent#culledEntities}, so multiple views never overwrite each other.
+ * {@link MainItemComponent#culled} is kept as the union result: true only if no camera can see the entity.
+ */
 @All(ViewPortComponent.class)
-public class CullingSystem extends IteratingSystem {
+public class CullingSystem extends IteratingSystem implements ConcurrentSystem {
 
     private boolean debug = false;
 
@@ -19,12 +29,23 @@ public class CullingSystem extends IteratingSystem {
     protected ComponentMapper<BoundingBoxComponent> boundingBoxMapper;
     protected ComponentMapper<MainItemComponent> mainItemMapper;
     protected ComponentMapper<PhysicsBodyComponent> physicsBodyMapper;
+    protected ComponentMapper<ParentNodeComponent> parentNodeMapper;
 
     Rectangle view = new Rectangle();
     OrthographicCamera camera;
 
     ShapeRenderer shapeRenderer = new ShapeRenderer();
 
+    private Bits culledEntities;
+    private final Bits visibleEntities = new Bits();
+    private final IntBag testedEntities = new IntBag();
+
+    @Override
+    protected void begin() {
+        visibleEntities.clear();
+        testedEntities.setSize(0);
+    }
+
     @Override
     protected void process(int entity) {
         ViewPortComponent viewPort = viewPortMapper.get(entity);
@@ -34,6 +55,9 @@ public class CullingSystem extends IteratingSystem {
         view.x = camera.position.x - (view.width * 0.5f);
         view.y = camera.position.y - (view.height * 0.5f);
 
+        culledEntities = viewPort.culledEntities;
+        culledEntities.clear();
+
         MainItemComponent m = mainItemMapper.get(entity);
         m.culled = false;
 
@@ -43,10 +67,9 @@ public class CullingSystem extends IteratingSystem {
         }
 
         NodeComponent node = nodeMapper.get(entity);
-        Integer[] children = node.children.begin();
+        int[] children = node.children.begin();
         for (int i = 0, n = node.children.size; i < n; i++) {
-            Integer child = children[i];
-            cull(child);
+            cull(children[i]);
         }
         node.children.end();
 
@@ -54,34 +77,69 @@ public class CullingSystem extends IteratingSystem {
             shapeRenderer.end();
     }
 
-    void cull(Integer entity) {
+    @Override
+    protected void end() {
+        int[] ids = testedEntities.getData();
+        for (int i = 0, s = testedEntities.size(); i < s; i++) {
+            int entity = ids[i];
+            mainItemMapper.get(entity).culled = !visibleEntities.get(entity);
+        }
+    }
+
+    void cull(int entity) {
         BoundingBoxComponent b = boundingBoxMapper.get(entity);
         if (b==null) return;
         PhysicsBodyComponent p = physicsBodyMapper.get(entity);
         if (p!= null)
             if (p.bodyType > 1) return;
 
-        MainItemComponent m = mainItemMapper.get(entity);
-
-        m.culled = !view.overlaps(b.rectangle);
+        boolean culled = !view.overlaps(b.rectangle);
+        testedEntities.add(entity);
         if (debug)
             shapeRenderer.rect(b.rectangle.x, b.rectangle.y, b.rectangle.width, b.rectangle.height);
 
-        if (!m.culled) {
+        if (culled) {
+            culledEntities.set(entity);
+        } else {
+            visibleEntities.set(entity);
             NodeComponent node = nodeMapper.get(entity);
 
             if (node != null) {
-                Integer[] children = node.children.begin();
+                int[] children = node.children.begin();
                 for (int i = 0, n = node.children.size; i < n; i++) {
-                    Integer child = children[i];
-                    cull(child);
+                    cull(children[i]);
                 }
                 node.children.end();
             }
         }
     }
 
+    /**
+     * Children of a culled composite are not tested, so their own flag can be stale:
+     * an entity is culled if it or any of its ancestors was culled by the last pass.
+     */
+    public boolean isCulled(int entity) {
+        while (entity != -1) {
+            MainItemComponent mainItemComponent = mainItemMapper.get(entity);
+            if (mainItemComponent != null && mainItemComponent.culled)
+                return true;
+
+            ParentNodeComponent parentNodeComponent = parentNodeMapper.get(entity);
+            if (parentNodeComponent == null)
+                return false;
+            entity = parentNodeComponent.parentEntity;
+        }
+        return false;
+    }
+
     public void setDebug(boolean debug) {
         this.debug = debug;
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.read(BoundingBoxComponent.class, NodeComponent.class, PhysicsBodyComponent.class)
+                .write(MainItemComponent.class, ViewPortComponent.class)
+                .mainThread();
+    }
 }
@@ -6,23 +6,41 @@ import com.artemis.annotations.Exclude;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.StringBuilder;
 import games.rednblack.editor.renderer.components.DimensionsComponent;
 import games.rednblack.editor.renderer.components.TransformComponent;
 import games.rednblack.editor.renderer.components.label.LabelComponent;
 import games.rednblack.editor.renderer.components.label.TypingLabelComponent;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
+import games.rednblack.editor.renderer.utils.GlyphLayoutCache;
 
 @All(LabelComponent.class)
 @Exclude(TypingLabelComponent.class)
-public class LabelSystem extends IteratingSystem {
+public class LabelSystem extends IteratingSystem implements ConcurrentSystem {
 	protected ComponentMapper<LabelComponent> labelComponentMapper;
 	protected ComponentMapper<DimensionsComponent> dimensionComponentMapper;
 
+	private final GlyphLayoutCache layoutCache = new GlyphLayoutCache(256);
+
 	@Override
 	protected void process(int entity) {
 		LabelComponent labelComponent = labelComponentMapper.get(entity);
 		DimensionsComponent dimensionsComponent = dimensionComponentMapper.get(entity);
-		
+
+		// fields may also be written directly, without bumping the version
+		boolean layoutValid = labelComponent.layoutVersion == labelComponent.getVersion()
+				&& labelComponent.layoutWidth == dimensionsComponent.width
+				&& labelComponent.layoutHeight == dimensionsComponent.height
+				&& labelComponent.layoutFieldsMatch()
+				&& (labelComponent.digitsChanged || labelComponent.layoutTextMatches());
+		if (layoutValid && !labelComponent.digitsChanged)
+			return;
+		labelComponent.digitsChanged = false;
+
 		BitmapFont font = labelComponent.cache.getFont();
 		
 		float oldScaleX = font.getScaleX();
@@ -30,43 +48,120 @@ public class LabelSystem extends IteratingSystem {
 		float fontScaleX = labelComponent.fontScaleX;
 		float fontScaleY = labelComponent.fontScaleY;
 		if (fontScaleX != 1 || fontScaleY != 1) font.getData().setScale(fontScaleX, fontScaleY);
-		
-		//horisontal Align
-		
-		float textWidth = labelComponent.layout.width;
-		float textHeight = labelComponent.layout.height;
-		float textX = 0;
-		
-		/*if (labelComponent.wrap || labelComponent.text.indexOf("\n") != -1) {
-			// If the text can span multiple lines, determine the text's actual size so it can be aligned within the label.
-			labelComponent.layout.setText(font, labelComponent.text, 0, labelComponent.text.length, Color.WHITE, dimensionsComponent.width, labelComponent.lineAlign, labelComponent.wrap, null);
-			textWidth = labelComponent.layout.width;
-			textHeight = labelComponent.layout.height;
-
-			if ((labelComponent.lineAlign  & Align.left) == 0) {
-				if ((labelComponent.lineAlign & Align.right) != 0)
-					textX += dimensionsComponent.width - textWidth;
-				else
-					textX += (dimensionsComponent.width - textWidth) / 2;
+
+		if (layoutValid && labelComponent.sharedLayout == null && swapDigitGlyphs(labelComponent, font.getData())) {
+			labelComponent.cache.setText(labelComponent.layout, labelComponent.layoutTextX, labelComponent.layoutTextY);
+			if (fontScaleX != 1 || fontScaleY != 1) font.getData().setScale(oldScaleX, oldScaleY);
+			labelComponent.storeLayoutState();
+			return;
+		}
+
+		GlyphLayout layout = labelComponent.layout;
+		BitmapFontCache cache = null;
+		GlyphLayoutCache.Entry entry = null;
+		if (labelComponent.shareLayout && layoutCache.getCapacity() > 0) {
+			entry = layoutCache.obtain(font, fontScaleX, fontScaleY, labelComponent.text, dimensionsComponent.width, dimensionsComponent.height,
+					labelComponent.labelAlign, labelComponent.lineAlign, labelComponent.wrap);
+			layout = entry.layout;
+			cache = entry.cache;
+		}
+
+		if (cache == null) {
+			layout.setText(font, labelComponent.text, 0, labelComponent.text.length, Color.WHITE, dimensionsComponent.width, labelComponent.lineAlign, labelComponent.wrap, null);
+
+			//horisontal Align
+
+			float textWidth = layout.width;
+			float textHeight = layout.height;
+			float textX = 0;
+
+			/*if (labelComponent.wrap || labelComponent.text.indexOf("\n") != -1) {
+				// If the text can span multiple lines, determine the text's actual size so it can be aligned within the label.
+				labelComponent.layout.setText(font, labelComponent.text, 0, labelComponent.text.length, Color.WHITE, dimensionsComponent.width, labelComponent.lineAlign, labelComponent.wrap, null);
+				textWidth = labelComponent.layout.width;
+				textHeight = labelComponent.layout.height;
+
+				if ((labelComponent.lineAlign  & Align.left) == 0) {
+					if ((labelComponent.lineAlign & Align.right) != 0)
+						textX += dimensionsComponent.width - textWidth;
+					else
+						textX += (dimensionsComponent.width - textWidth) / 2;
+				}
+			}*/
+
+			//vertical Align
+			float textY = textHeight;
+			if ((labelComponent.labelAlign & Align.top) != 0) {
+				textY += font.isFlipped() ? 0 : dimensionsComponent.height - textHeight;
+				textY += labelComponent.style.font.getDescent();
+			} else if ((labelComponent.labelAlign & Align.bottom) != 0) {
+				textY += font.isFlipped() ? dimensionsComponent.height - textHeight : 0;
+				textY -= labelComponent.style.font.getDescent();
+			} else {
+				textY += (dimensionsComponent.height - textHeight) / 2;
 			}
-		}*/
-		
-		//vertical Align
-		float textY = textHeight;
-		if ((labelComponent.labelAlign & Align.top) != 0) {
-			textY += labelComponent.cache.getFont().isFlipped() ? 0 : dimensionsComponent.height - textHeight;
-			textY += labelComponent.style.font.getDescent();
-		} else if ((labelComponent.labelAlign & Align.bottom) != 0) {
-			textY += labelComponent.cache.getFont().isFlipped() ? dimensionsComponent.height - textHeight : 0;
-			textY -= labelComponent.style.font.getDescent();
-		} else {
-			textY += (dimensionsComponent.height - textHeight) / 2;
+
+			if (entry != null) {
+				entry.cache = font.newFontCache();
+				cache = entry.cache;
+			} else {
+				labelComponent.setSharedLayout(null);
+				cache = labelComponent.cache;
+			}
+			cache.setText(layout, textX, textY);
+
+			labelComponent.layoutTextX = textX;
+			labelComponent.layoutTextY = textY;
 		}
-		
-		labelComponent.layout.setText(font, labelComponent.text, 0, labelComponent.text.length, Color.WHITE, dimensionsComponent.width, labelComponent.lineAlign, labelComponent.wrap, null);
-		labelComponent.cache.setText(labelComponent.layout, textX, textY);
-		
+
+		if (entry != null)
+			labelComponent.setSharedLayout(entry);
+
 		if (fontScaleX != 1 || fontScaleY != 1) font.getData().setScale(oldScaleX, oldScaleY);
+
+		labelComponent.layoutVersion = labelComponent.getVersion();
+		labelComponent.layoutWidth = dimensionsComponent.width;
+		labelComponent.layoutHeight = dimensionsComponent.height;
+		labelComponent.storeLayoutState();
+	}
+
+	/**
+	 * Labels showing the same text with the same font, size and alignment share their layout, up to the given number
+	 * of distinct layouts. Set it to 0 to give every label its own layout.
+	 */
+	public void setLayoutCacheSize(int size) {
+		layoutCache.setCapacity(size);
+	}
+
+	/**
+	 * Replaces in place the glyphs of the digits that changed since the last layout, skipping a full relayout.
+	 * Only possible for single line labels whose digits are fixed width glyphs, see {@link BitmapFont#setFixedWidthGlyphs(CharSequence)}.
+	 *
+	 * @return false if the label must be laid out again
+	 */
+	private boolean swapDigitGlyphs(LabelComponent labelComponent, BitmapFont.BitmapFontData fontData) {
+		GlyphLayout layout = labelComponent.layout;
+		if (layout.runs.size != 1) return false;
+
+		GlyphLayout.GlyphRun run = layout.runs.first();
+		StringBuilder text = labelComponent.text;
+		if (run.glyphs.size != text.length) return false;
+
+		char[] chars = text.chars;
+		for (int i = 0; i < text.length; i++) {
+			BitmapFont.Glyph glyph = run.glyphs.get(i);
+			char c = chars[i];
+			if (glyph.id == c) continue;
+
+			BitmapFont.Glyph replacement = fontData.getGlyph(c);
+			if (replacement == null || !replacement.fixedWidth || !glyph.fixedWidth) return false;
+			if (i > 0) {
+				BitmapFont.Glyph previous = run.glyphs.get(i - 1);
+				if (previous.getKerning(c) != previous.getKerning((char) glyph.id)) return false;
+			}
+			run.glyphs.set(i, replacement);
+		}
+		return true;
 	}
 	
 //	private void scaleAndComputePrefSize () {
@@ -168,4 +263,10 @@ public class LabelSystem extends IteratingSystem {
 //		if (fontScaleX != 1 || fontScaleY != 1) font.getData().setScale(oldScaleX, oldScaleY);
 //	}
 
+	@Override
+	public void declareAccess(SystemAccess access) {
+		access.read(DimensionsComponent.class)
+				.write(LabelComponent.class)
+				.mainThread();
+	}
 }
@@ -3,84 +3,130 @@ package games.rednblack.editor.renderer.systems;
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
 import com.artemis.systems.IteratingSystem;
-import com.badlogic.gdx.utils.SnapshotArray;
 import games.rednblack.editor.renderer.components.CompositeTransformComponent;
 import games.rednblack.editor.renderer.components.LayerMapComponent;
 import games.rednblack.editor.renderer.components.NodeComponent;
 import games.rednblack.editor.renderer.components.ZIndexComponent;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 
-import java.util.Comparator;
+import java.util.Arrays;
 
+/**
+ * Keeps composite children ordered by layer and z-index.
+ * Children are sorted only when {@link NodeComponent#needsSort} or {@link LayerMapComponent#needsUpdate} is set,
+ * using primitive sort keys computed once per child, so static composites are never sorted again.
+ * Layer names are resolved to {@link ZIndexComponent#layerId} at the same time. The composite's layer visibility
+ * mask is refreshed every frame, one check per layer since {@link games.rednblack.editor.renderer.data.LayerItemVO#isVisible}
+ * can be toggled directly, so that the renderer only needs a bit test per child.
+ */
 @All(CompositeTransformComponent.class)
-public class LayerSystem extends IteratingSystem {
+public class LayerSystem extends IteratingSystem implements ConcurrentSystem {
 
-    private final Comparator<Integer> comparator = new ZComparator();
+    private static final int LAYER_BITS = 10;
+    private static final int TIE_BITS = 2;
+    private static final int POSITION_BITS = 19;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+
+    /** Ranks used to emulate "move to index" for children with {@link ZIndexComponent#needReOrder} */
+    private static final int TIE_MOVE_FRONT = 0;
+    private static final int TIE_NONE = 1;
+    private static final int TIE_MOVE_BACK = 2;
 
     protected ComponentMapper<ZIndexComponent> zIndexMapper;
     protected ComponentMapper<LayerMapComponent> layerMapper;
     protected ComponentMapper<NodeComponent> nodeMapper;
 
-	@Override
-	protected void process(int entityId) {
+    private long[] sortKeys = new long[16];
+    private int[] sortEntities = new int[16];
+
+    @Override
+    protected void process(int entityId) {
         NodeComponent nodeComponent = nodeMapper.get(entityId);
         LayerMapComponent layerMapComponent = layerMapper.get(entityId);
-        updateLayers(nodeComponent.children, layerMapComponent);
 
-        sort(nodeComponent.children);
+        if (layerMapComponent != null)
+            layerMapComponent.updateVisibility();
+
+        boolean layersChanged = layerMapComponent != null && layerMapComponent.needsUpdate;
+        if (!nodeComponent.needsSort && !layersChanged)
+            return;
 
-        if (layerMapComponent.autoIndexing) {
+        boolean autoIndexing = layerMapComponent == null || layerMapComponent.autoIndexing;
+        sort(nodeComponent, layerMapComponent, autoIndexing);
+
+        if (autoIndexing) {
             updateZIndices(nodeComponent.children);
         }
+
+        nodeComponent.needsSort = false;
+        if (layerMapComponent != null)
+            layerMapComponent.needsUpdate = false;
     }
 
-    private void updateLayers(SnapshotArray<Integer> children, LayerMapComponent layerMapComponent) {
-        for (int i = 0; i < children.size; i++) {
-            Integer entity = children.get(i);
+    private void sort(NodeComponent nodeComponent, LayerMapComponent layerMapComponent, boolean autoIndexing) {
+        SnapshotIntArray children = nodeComponent.children;
+        int size = children.size;
+        ensureCapacity(size);
+
+        for (int i = 0; i < size; i++) {
+            int entity = children.get(i);
             ZIndexComponent zindexComponent = zIndexMapper.get(entity);
-            zindexComponent.layerIndex = getLayerIndexByName(zindexComponent.layerName, layerMapComponent);
-            if (zindexComponent.needReOrder && layerMapComponent.autoIndexing) {
+            zindexComponent.parentNode = nodeComponent;
+            zindexComponent.layerId = getLayerId(zindexComponent.layerName, layerMapComponent);
+            zindexComponent.layerIndex = Math.max(zindexComponent.layerId, 0);
+
+            int tie = TIE_NONE;
+            if (zindexComponent.needReOrder && autoIndexing) {
                 if (zindexComponent.getZIndex() < 0) throw new IllegalArgumentException("ZIndex cannot be < 0.");
-                if (children.size == 1) {
-                    zindexComponent.setZIndex(0);
-                    zindexComponent.needReOrder = false;
-                    return;
-                }
-                if (!children.removeValue(entity, true)) return;
-                if (zindexComponent.getZIndex() >= children.size)
-                    children.add(entity);
-                else
-                    children.insert(zindexComponent.getZIndex(), entity);
+                tie = zindexComponent.getZIndex() < i ? TIE_MOVE_FRONT : TIE_MOVE_BACK;
             }
+
+            sortEntities[i] = entity;
+            sortKeys[i] = sortKey(zindexComponent.layerIndex, zindexComponent.getZIndex(), tie, i);
+        }
+
+        Arrays.sort(sortKeys, 0, size);
+
+        for (int i = 0; i < size; i++) {
+            children.set(i, sortEntities[(int) (sortKeys[i] & POSITION_MASK)]);
+        }
+    }
+
+    private long sortKey(int layerIndex, int zIndex, int tie, int position) {
+        long layer = Math.min(Math.max(layerIndex, 0), (1 << LAYER_BITS) - 1);
+        long z = (long) zIndex - Integer.MIN_VALUE;
+        return (((layer << 32 | z) << TIE_BITS | tie) << POSITION_BITS) | position;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > POSITION_MASK) throw new IllegalStateException("Too many children in a single composite: " + size);
+        if (sortKeys.length < size) {
+            int capacity = Math.max(size, sortKeys.length * 2);
+            sortKeys = new long[capacity];
+            sortEntities = new int[capacity];
         }
     }
 
-    private void updateZIndices(SnapshotArray<Integer> children) {
+    private void updateZIndices(SnapshotIntArray children) {
         for (int i = 0; i < children.size; i++) {
-            Integer entity = children.get(i);
+            int entity = children.get(i);
             ZIndexComponent zindexComponent = zIndexMapper.get(entity);
             zindexComponent.setZIndex(i);
             zindexComponent.needReOrder = false;
         }
     }
 
-    private void sort(SnapshotArray<Integer> children) {
-        children.sort(comparator);
-    }
-
-    private int getLayerIndexByName(String layerName, LayerMapComponent layerMapComponent) {
+    private int getLayerId(String layerName, LayerMapComponent layerMapComponent) {
         if (layerMapComponent == null) {
-            return 0;
+            return -1;
         }
-        return layerMapComponent.getIndexByName(layerName);
+        return layerMapComponent.getLayerId(layerName);
     }
 
-    private class ZComparator implements Comparator<Integer> {
-        @Override
-        public int compare(Integer e1, Integer e2) {
-            ZIndexComponent zIndexComponent1 = zIndexMapper.get(e1);
-            ZIndexComponent zIndexComponent2 = zIndexMapper.get(e2);
-            return zIndexComponent1.layerIndex == zIndexComponent2.layerIndex ? Integer.signum(zIndexComponent1.getZIndex() - zIndexComponent2.getZIndex()) : Integer.signum(zIndexComponent1.layerIndex - zIndexComponent2.layerIndex);
-        }
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.write(NodeComponent.class, ZIndexComponent.class, LayerMapComponent.class);
     }
-
 }
@@ -2,6 +2,7 @@ package games.rednblack.editor.renderer.systems;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.One;
+import com.artemis.annotations.Wire;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
@@ -16,10 +17,12 @@ import games.rednblack.editor.renderer.components.light.LightObjectComponent;
 import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
 import games.rednblack.editor.renderer.data.LightVO;
 import games.rednblack.editor.renderer.utils.TransformMathUtils;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
 
 
 @One({LightObjectComponent.class, LightBodyComponent.class})
-public class LightSystem extends IteratingSystem {
+public class LightSystem extends IteratingSystem implements ConcurrentSystem {
     protected ComponentMapper<LightObjectComponent> lightObjectComponentMapper;
     protected ComponentMapper<TransformComponent> transformComponentMapper;
     protected ComponentMapper<ParentNodeComponent> parentNodeComponentMapper;
@@ -27,10 +30,20 @@ public class LightSystem extends IteratingSystem {
     protected ComponentMapper<PolygonComponent> polygonComponentMapper;
     protected ComponentMapper<PhysicsBodyComponent> physicsBodyComponentMapper;
 
+    @Wire(failOnNull = false)
+    protected PhysicsSystem physicsSystem;
+
     private RayHandler rayHandler;
 
     private final Vector2 localCoord = new Vector2();
 
+    @Override
+    protected void begin() {
+        // lights attached to bodies read them
+        if (physicsSystem != null)
+            physicsSystem.join();
+    }
+
     @Override
     protected void process(int entityId) {
 
@@ -129,4 +142,11 @@ public class LightSystem extends IteratingSystem {
     public void setRayHandler(RayHandler rayHandler) {
         this.rayHandler = rayHandler;
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.read(TransformComponent.class, ParentNodeComponent.class, PolygonComponent.class, PhysicsBodyComponent.class)
+                .write(LightObjectComponent.class, LightBodyComponent.class)
+                .mainThread();
+    }
 }
@@ -2,21 +2,91 @@ package games.rednblack.editor.renderer.systems;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
-import com.artemis.systems.IteratingSystem;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.utils.Bits;
+import games.rednblack.editor.renderer.components.MainItemComponent;
+import games.rednblack.editor.renderer.components.ParentNodeComponent;
 import games.rednblack.editor.renderer.components.particle.ParticleComponent;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.ParallelIteratingSystem;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
+import games.rednblack.editor.renderer.utils.CulledUpdate;
 
+/**
+ * Updates particle effects, optionally on worker threads: effects are independent from each other as long as
+ * every entity owns its {@link ParticleEffect}, an effect shared between entities must not be updated by workers.
+ * Emitters draw from the shared {@link com.badlogic.gdx.math.MathUtils#random}, which isn't thread safe: with workers,
+ * concurrent updates may get correlated random values.
+ * With {@link #setDeferJoin(boolean)} the simulation overlaps with the next systems and is joined
+ * by {@link games.rednblack.editor.renderer.systems.render.HyperLap2dRenderer} before drawing.
+ * Culled effects follow {@link ParticleComponent#culledUpdate}.
+ */
 @All(ParticleComponent.class)
-public class ParticleSystem extends IteratingSystem {
+public class ParticleSystem extends ParallelIteratingSystem<Void> implements ConcurrentSystem {
 
 	protected ComponentMapper<ParticleComponent> particleComponentMapper;
 
+    @Wire(failOnNull = false)
+    protected CullingSystem cullingSystem;
+
+    private static final float CATCH_UP_STEP = 1f / 30f;
+
+    /** Culled state of the throttled effects, read by the workers instead of the flags updated by culling. */
+    private final Bits culledEntities = new Bits();
+
+    public ParticleSystem() {
+        this(0);
+    }
+
+    /**
+     * @param threads worker threads updating the effects, 0 to update everything on the calling thread
+     */
+    public ParticleSystem(int threads) {
+        super(threads);
+        minChunkSize = 8;
+    }
+
     @Override
-    protected void process(int entityId) {
+    protected void begin() {
+        // deferred chunks of the last frame may still read the snapshot
+        join();
+        culledEntities.clear();
+        if (cullingSystem == null)
+            return;
+
+        IntBag actives = subscription.getEntities();
+        int[] ids = actives.getData();
+        for (int i = 0, s = actives.size(); i < s; i++) {
+            int entity = ids[i];
+            if (particleComponentMapper.get(entity).culledUpdate.policy != CulledUpdate.Policy.FULL
+                    && cullingSystem.isCulled(entity))
+                culledEntities.set(entity);
+        }
+    }
+
+    @Override
+    protected void process(int entityId, Void scratch) {
         ParticleComponent particleComponent = particleComponentMapper.get(entityId);
 
+        boolean culled = culledEntities.get(entityId);
+        float delta = particleComponent.culledUpdate.step(world.delta, culled);
+        if (culled && delta == 0)
+            return;
+
         ParticleEffect particleEffect = particleComponent.particleEffect;
-        particleEffect.update(world.delta);
+        // catch up skipped time in small steps, emitters don't cope well with long deltas
+        while (delta > world.delta + CATCH_UP_STEP) {
+            particleEffect.update(CATCH_UP_STEP);
+            delta -= CATCH_UP_STEP;
+        }
+        particleEffect.update(delta);
     }
 
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.read(MainItemComponent.class, ParentNodeComponent.class)
+                .write(ParticleComponent.class);
+    }
 }
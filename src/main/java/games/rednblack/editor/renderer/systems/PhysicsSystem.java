@@ -7,14 +7,26 @@ import com.artemis.utils.IntBag;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import games.rednblack.editor.renderer.components.PolygonComponent;
 import games.rednblack.editor.renderer.components.ScriptComponent;
 import games.rednblack.editor.renderer.components.TransformComponent;
 import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
 import games.rednblack.editor.renderer.physics.PhysicsBodyLoader;
 import games.rednblack.editor.renderer.physics.PhysicsContact;
-import games.rednblack.editor.renderer.scripts.IScript;
-
+import games.rednblack.editor.renderer.systems.strategy.EntityCommandBuffer;
+
+/**
+ * Steps the Box2D world with a fixed time step and copies the body states into the {@link TransformComponent}s.
+ * <p>
+ * With {@link #setAsyncStep(boolean)} the steps of the next frame run on a dedicated thread while the current one
+ * is drawn, see {@link #startAsyncStep()}.
+ */
 @All(PhysicsBodyComponent.class)
 public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
 
@@ -22,6 +34,11 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
     public static int POSITION_ITERATIONS = 3;
     public static float TIME_STEP = 1f / 60f;
 
+    private static final int BEGIN_CONTACT = 0;
+    private static final int END_CONTACT = 1;
+    private static final int PRE_SOLVE = 2;
+    private static final int POST_SOLVE = 3;
+
     protected ComponentMapper<TransformComponent> transformComponentMapper;
     protected ComponentMapper<PhysicsBodyComponent> physicsBodyComponentMapper;
     protected ComponentMapper<PolygonComponent> polygonComponentMapper;
@@ -30,15 +47,57 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
     private World world;
     private boolean isPhysicsOn = true;
     private float accumulator = 0;
+    /** Interpolation factor between the states of the published batch, see {@link #asyncPhysicStep(float)}. */
+    private float stepAlpha = 1f;
+    private boolean interpolationEnabled = true;
+
+    private boolean bufferContacts = false;
+    private int solveListeners = 0;
+    private short solveCategoryMask = -1;
+    /** type, entity A, entity B */
+    private final IntArray bufferedContacts = new IntArray();
+    private final Array<Fixture> bufferedFixtures = new Array<>();
+    private final Array<Body> bufferedBodies = new Array<>();
+
+    private AsyncExecutor executor;
+    private AsyncResult<Void> stepResult;
+    private final AsyncTask<Void> stepTask = new AsyncTask<Void>() {
+        @Override
+        public Void call() {
+            stepBatch();
+            return null;
+        }
+    };
+    /** Steps accumulated by the last frame, not started yet. */
+    private int pendingSteps = 0;
+    private int stepCount = 0;
+    /** Bodies stepped by the running batch and their states: previous x, y, angle, then current x, y, angle. */
+    private int[] stepEntities = new int[64];
+    private final Array<Body> stepBodies = new Array<>();
+    /** Solve listeners of the stepped entities, read by the physics thread instead of the scripts. */
+    private final IntMap<Array<PhysicsContact>> stepSolveContacts = new IntMap<>();
+    private final Array<Array<PhysicsContact>> freeSolveContacts = new Array<>();
+    private short stepSolveCategoryMask = -1;
+    private float[] snapshots = new float[64 * 6];
+
+    private final Array<Body> destroyedBodies = new Array<>();
+    private IntArray commandEntities = new IntArray();
+    private Array<EntityCommandBuffer.EntityCommand> commands = new Array<>();
+    private IntArray playingEntities = new IntArray();
+    private Array<EntityCommandBuffer.EntityCommand> playingCommands = new Array<>();
 
     public void setBox2DWorld(World world) {
+        join();
         this.world = world;
         world.setContactListener(this);
     }
 
     @Override
     protected final void processSystem() {
-        fixedPhysicStep(getWorld().delta);
+        if (executor != null)
+            asyncPhysicStep(getWorld().delta);
+        else
+            fixedPhysicStep(getWorld().delta);
 
         IntBag actives = subscription.getEntities();
         int[] ids = actives.getData();
@@ -53,6 +112,8 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
      * @param deltaTime time step passed directly to {@link World#step}
      */
     public void manualUpdate(float deltaTime) {
+        join();
+        storePreviousStates();
         physicStep(deltaTime);
     }
 
@@ -61,6 +122,7 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
             float frameTime = Math.min(deltaTime, 0.25f); //avoid spiral of death
             accumulator += frameTime;
             while (accumulator >= TIME_STEP) {
+                storePreviousStates();
                 physicStep(TIME_STEP);
                 accumulator -= TIME_STEP;
             }
@@ -69,11 +131,278 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
 
     private void physicStep(float deltaTime) {
         world.step(deltaTime, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+        if (bufferedContacts.size > 0)
+            dispatchBufferedContacts();
+    }
+
+    /**
+     * The world is idle from here until {@link #startAsyncStep()}: the steps of the last frame are published, then
+     * the bodies destroyed and the commands queued during the steps are applied and the steps of this frame are
+     * accumulated.
+     */
+    private void asyncPhysicStep(float deltaTime) {
+        join();
+        if (pendingSteps > 0) {
+            // nothing started the steps of the last frame, run them now
+            prepareStep();
+            stepBatch();
+        }
+
+        if (stepBodies.size > 0)
+            publishSnapshots();
+
+        for (int i = 0; i < destroyedBodies.size; i++)
+            world.destroyBody(destroyedBodies.get(i));
+        destroyedBodies.clear();
+
+        if (bufferedContacts.size > 0)
+            dispatchBufferedContacts();
+
+        runCommands();
+
+        if (world != null && isPhysicsOn) {
+            accumulator += Math.min(deltaTime, 0.25f); //avoid spiral of death
+            // the published batch ends where this frame's steps begin
+            stepAlpha = Math.min(accumulator / TIME_STEP, 1f);
+            pendingSteps = (int) (accumulator / TIME_STEP);
+            accumulator -= pendingSteps * TIME_STEP;
+        }
+    }
+
+    /**
+     * Starts the steps accumulated by the last {@link #processSystem()} on the physics thread, called by the
+     * renderer once it no longer reads the world. Until the next {@link #processSystem()} or {@link #join()} the
+     * Box2D world, its bodies and fixtures must not be touched: use {@link #runOnBody(int, EntityCommandBuffer.EntityCommand)}
+     * and {@link #destroyBody(Body)} instead. Does nothing if async stepping is disabled or there is no step to run.
+     */
+    public void startAsyncStep() {
+        if (executor == null || stepResult != null || pendingSteps == 0)
+            return;
+
+        prepareStep();
+        stepResult = executor.submit(stepTask);
+    }
+
+    /**
+     * Waits for the steps started by {@link #startAsyncStep()}, does nothing if the world isn't stepping.
+     */
+    public void join() {
+        if (stepResult == null)
+            return;
+
+        stepResult.get();
+        stepResult = null;
+    }
+
+    public boolean isStepping() {
+        return stepResult != null;
+    }
+
+    /**
+     * Records the bodies to snapshot and the solve listeners, the subscription and the scripts can't be read from
+     * the physics thread.
+     */
+    private void prepareStep() {
+        stepCount = pendingSteps;
+        pendingSteps = 0;
+
+        IntBag bag = subscription.getEntities();
+        int[] ids = bag.getData();
+        int size = bag.size();
+        if (stepEntities.length < size) {
+            stepEntities = new int[Math.max(size, stepEntities.length * 2)];
+            snapshots = new float[stepEntities.length * 6];
+        }
+        stepBodies.clear();
+        for (int i = 0; i < size; i++) {
+            Body body = physicsBodyComponentMapper.get(ids[i]).body;
+            if (body == null)
+                continue;
+            stepEntities[stepBodies.size] = ids[i];
+            stepBodies.add(body);
+        }
+
+        for (Array<PhysicsContact> contacts : stepSolveContacts.values()) {
+            contacts.clear();
+            freeSolveContacts.add(contacts);
+        }
+        stepSolveContacts.clear();
+        stepSolveCategoryMask = solveCategoryMask;
+        if (solveListeners == 0)
+            return;
+
+        for (int i = 0; i < size; i++) {
+            ScriptComponent scriptComponent = scriptComponentMapper.get(ids[i]);
+            if (scriptComponent == null || scriptComponent.solveContacts.size == 0)
+                continue;
+            Array<PhysicsContact> contacts = freeSolveContacts.size > 0 ? freeSolveContacts.pop() : new Array<PhysicsContact>();
+            contacts.addAll(scriptComponent.solveContacts);
+            stepSolveContacts.put(ids[i], contacts);
+        }
+    }
+
+    private void stepBatch() {
+        for (int i = 0; i < stepCount; i++) {
+            if (i == stepCount - 1)
+                snapshot(0);
+            world.step(TIME_STEP, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+        }
+        snapshot(3);
+        stepCount = 0;
+    }
+
+    private void snapshot(int offset) {
+        Body[] bodies = stepBodies.items;
+        for (int i = 0, j = offset; i < stepBodies.size; i++, j += 6) {
+            Transform transform = bodies[i].getTransform();
+            Vector2 bodyPosition = transform.getPosition();
+            snapshots[j] = bodyPosition.x;
+            snapshots[j + 1] = bodyPosition.y;
+            snapshots[j + 2] = transform.getRotation();
+        }
+    }
+
+    /**
+     * Copies the states of the last batch into the components whose body is still the stepped one.
+     */
+    private void publishSnapshots() {
+        Body[] bodies = stepBodies.items;
+        for (int i = 0, j = 0; i < stepBodies.size; i++, j += 6) {
+            PhysicsBodyComponent physicsBodyComponent = physicsBodyComponentMapper.get(stepEntities[i]);
+            if (physicsBodyComponent == null || physicsBodyComponent.body != bodies[i])
+                continue;
+
+            physicsBodyComponent.previousX = snapshots[j];
+            physicsBodyComponent.previousY = snapshots[j + 1];
+            physicsBodyComponent.previousAngle = snapshots[j + 2];
+            physicsBodyComponent.currentX = snapshots[j + 3];
+            physicsBodyComponent.currentY = snapshots[j + 4];
+            physicsBodyComponent.currentAngle = snapshots[j + 5];
+            physicsBodyComponent.hasPreviousState = true;
+        }
+        stepBodies.clear();
+    }
+
+    /**
+     * Publishes the current state of the body as both the previous and the current one, the world must be idle.
+     */
+    private void publishState(PhysicsBodyComponent physicsBodyComponent) {
+        Transform transform = physicsBodyComponent.body.getTransform();
+        Vector2 bodyPosition = transform.getPosition();
+        physicsBodyComponent.previousX = physicsBodyComponent.currentX = bodyPosition.x;
+        physicsBodyComponent.previousY = physicsBodyComponent.currentY = bodyPosition.y;
+        physicsBodyComponent.previousAngle = physicsBodyComponent.currentAngle = transform.getRotation();
+        physicsBodyComponent.hasPreviousState = true;
     }
 
     /**
-     * Iterate over all entities and interpolate {@link TransformComponent#x} and {@link TransformComponent#y}
-     * to current {@link PhysicsBodyComponent#body} position
+     * Steps the world on a dedicated thread while the renderer draws the last published state: transforms are one
+     * frame behind the simulation. Systems processed before the renderer, including scripts and actions, run while
+     * the world is idle and can use the bodies directly; begin and end contacts are always buffered, so they receive a
+     * null {@link Contact}, while pre and post solve callbacks are invoked on the physics thread, for the listeners
+     * registered when the step started: they must not touch the components.
+     * <p>
+     * Code running after the renderer or outside the world, like input and event listeners, must go through
+     * {@link #runOnBody(int, EntityCommandBuffer.EntityCommand)} and {@link #destroyBody(Body)}, or {@link #join()}
+     * first. On GWT the steps run synchronously.
+     */
+    public void setAsyncStep(boolean asyncStep) {
+        if (asyncStep == (executor != null))
+            return;
+
+        join();
+        if (asyncStep) {
+            executor = new AsyncExecutor(1, "PhysicsSystem");
+            if (subscription == null)
+                return;
+            IntBag bag = subscription.getEntities();
+            for (int i = 0, s = bag.size(); i < s; ++i) {
+                PhysicsBodyComponent physicsBodyComponent = physicsBodyComponentMapper.get(bag.get(i));
+                if (physicsBodyComponent.body != null)
+                    publishState(physicsBodyComponent);
+            }
+        } else {
+            if (pendingSteps > 0) {
+                prepareStep();
+                stepBatch();
+                publishSnapshots();
+            }
+            executor.dispose();
+            executor = null;
+            runCommands();
+        }
+    }
+
+    public boolean isAsyncStep() {
+        return executor != null;
+    }
+
+    /**
+     * Executes the command on the thread that processes the world once the body can be modified: immediately
+     * unless async stepping is enabled, otherwise at the next {@link #processSystem()}. Skipped if the entity has no
+     * body by then.
+     */
+    public void runOnBody(int entity, EntityCommandBuffer.EntityCommand command) {
+        if (executor == null) {
+            if (hasBody(entity))
+                command.execute(entity);
+            return;
+        }
+
+        synchronized (this) {
+            commandEntities.add(entity);
+            commands.add(command);
+        }
+    }
+
+    private void runCommands() {
+        synchronized (this) {
+            if (commands.size == 0)
+                return;
+
+            IntArray entities = commandEntities;
+            commandEntities = playingEntities;
+            playingEntities = entities;
+            Array<EntityCommandBuffer.EntityCommand> queued = commands;
+            commands = playingCommands;
+            playingCommands = queued;
+        }
+
+        for (int i = 0; i < playingCommands.size; i++) {
+            int entity = playingEntities.get(i);
+            if (hasBody(entity))
+                playingCommands.get(i).execute(entity);
+        }
+        playingEntities.clear();
+        playingCommands.clear();
+    }
+
+    private boolean hasBody(int entity) {
+        PhysicsBodyComponent physicsBodyComponent = physicsBodyComponentMapper.get(entity);
+        return physicsBodyComponent != null && physicsBodyComponent.body != null;
+    }
+
+    /**
+     * Destroys the body, delayed until the world is idle if it's stepping. Must be called on the thread that
+     * processes the world.
+     */
+    public void destroyBody(Body body) {
+        if (stepResult != null)
+            destroyedBodies.add(body);
+        else
+            world.destroyBody(body);
+    }
+
+    @Override
+    protected void dispose() {
+        join();
+        if (executor != null)
+            executor.dispose();
+    }
+
+    /**
+     * Iterate over all entities and interpolate their {@link TransformComponent} between the body states before and
+     * after the last step
      *
      * @param alpha linear interpolation factor
      */
@@ -85,11 +414,11 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
     }
 
     /**
-     * Interpolate {@link TransformComponent#x} and {@link TransformComponent#y}
-     * to current {@link PhysicsBodyComponent#body} position
+     * Interpolate {@link TransformComponent#x}, {@link TransformComponent#y} and {@link TransformComponent#rotation}
+     * between the {@link PhysicsBodyComponent#body} state before the last step and the current one
      *
      * @param entity Entity to interpolate
-     * @param alpha  linear interpolation factor
+     * @param alpha  linear interpolation factor, 1 snaps to the current body state
      */
     public void interpolate(int entity, float alpha) {
         PhysicsBodyComponent physicsBodyComponent = physicsBodyComponentMapper.get(entity);
@@ -100,25 +429,74 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
 
         TransformComponent transformComponent = transformComponentMapper.get(entity);
 
-        Transform transform = body.getTransform();
-        Vector2 bodyPosition = transform.getPosition();
-        bodyPosition.sub(transformComponent.originX, transformComponent.originY);
-        float angle = transformComponent.rotation;
-        float bodyAngle = transform.getRotation();
+        float bodyX, bodyY, bodyAngle;
+        if (executor != null) {
+            // the body may be stepping, use the published state
+            bodyX = physicsBodyComponent.currentX;
+            bodyY = physicsBodyComponent.currentY;
+            bodyAngle = physicsBodyComponent.currentAngle;
+        } else {
+            Transform transform = body.getTransform();
+            Vector2 bodyPosition = transform.getPosition();
+            bodyX = bodyPosition.x;
+            bodyY = bodyPosition.y;
+            bodyAngle = transform.getRotation();
+        }
+
+        if (!physicsBodyComponent.hasPreviousState)
+            alpha = 1f;
 
-        transformComponent.x = bodyPosition.x * alpha + transformComponent.x * (1.0f - alpha);
-        transformComponent.y = bodyPosition.y * alpha + transformComponent.y * (1.0f - alpha);
+        float x = physicsBodyComponent.previousX * (1.0f - alpha) + bodyX * alpha;
+        float y = physicsBodyComponent.previousY * (1.0f - alpha) + bodyY * alpha;
+        transformComponent.x = x - transformComponent.originX;
+        transformComponent.y = y - transformComponent.originY;
 
-        float cs = (1.0f - alpha) * MathUtils.cosDeg(angle) + alpha * MathUtils.cos(bodyAngle);
-        float sn = (1.0f - alpha) * MathUtils.sinDeg(angle) + alpha * MathUtils.sin(bodyAngle);
+        float angle = physicsBodyComponent.previousAngle;
+        float cs = (1.0f - alpha) * MathUtils.cos(angle) + alpha * MathUtils.cos(bodyAngle);
+        float sn = (1.0f - alpha) * MathUtils.sin(angle) + alpha * MathUtils.sin(bodyAngle);
 
         transformComponent.rotation = MathUtils.atan2(sn, cs) * MathUtils.radiansToDegrees;
     }
 
+    /**
+     * Stores the current body states as the previous ones, called before every step.
+     */
+    private void storePreviousStates() {
+        IntBag bag = subscription.getEntities();
+        int[] ids = bag.getData();
+        for (int i = 0, s = bag.size(); i < s; ++i) {
+            PhysicsBodyComponent physicsBodyComponent = physicsBodyComponentMapper.get(ids[i]);
+            Body body = physicsBodyComponent.body;
+            if (body == null)
+                continue;
+
+            Transform transform = body.getTransform();
+            Vector2 bodyPosition = transform.getPosition();
+            physicsBodyComponent.previousX = bodyPosition.x;
+            physicsBodyComponent.previousY = bodyPosition.y;
+            physicsBodyComponent.previousAngle = transform.getRotation();
+            physicsBodyComponent.hasPreviousState = true;
+        }
+    }
+
+    /**
+     * Snap transforms to the latest body state instead of interpolating between the last two steps. Interpolation
+     * smooths the motion when rendering faster than {@link #TIME_STEP}, at the cost of up to one step of latency.
+     */
+    public void setInterpolationEnabled(boolean interpolationEnabled) {
+        this.interpolationEnabled = interpolationEnabled;
+    }
+
+    public boolean isInterpolationEnabled() {
+        return interpolationEnabled;
+    }
+
     protected void process(int entity) {
         processBody(entity);
 
-        interpolate(entity, 1f);
+        boolean stepping = world != null && isPhysicsOn;
+        float alpha = executor != null ? stepAlpha : accumulator / TIME_STEP;
+        interpolate(entity, interpolationEnabled && stepping ? alpha : 1f);
     }
 
     protected void processBody(int entity) {
@@ -128,7 +506,7 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
         TransformComponent transformComponent = transformComponentMapper.get(entity);
 
         if ((polygonComponent == null || polygonComponent.vertices == null) && physicsBodyComponent.body != null) {
-            world.destroyBody(physicsBodyComponent.body);
+            destroyBody(physicsBodyComponent.body);
             physicsBodyComponent.body = null;
         }
 
@@ -138,6 +516,8 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
 
             physicsBodyComponent.body = PhysicsBodyLoader.getInstance().createBody(world, entity, physicsBodyComponent, polygonComponent.vertices, transformComponent);
             physicsBodyComponent.body.setUserData(entity);
+            if (executor != null)
+                publishState(physicsBodyComponent);
         }
 
         physicsBodyComponent.executeRefresh(entity);
@@ -147,7 +527,39 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
         this.isPhysicsOn = isPhysicsOn;
     }
 
-    private void processCollision(Contact contact, boolean in, boolean preSolve, boolean postSolve) {
+    /**
+     * When enabled begin and end contacts are recorded during {@link World#step} and dispatched to the scripts right
+     * after it, when bodies can be safely created, destroyed or modified. Buffered callbacks receive a null
+     * {@link Contact}: it's only valid inside the step. Pre and post solve callbacks are never buffered.
+     */
+    public void setBufferContacts(boolean bufferContacts) {
+        this.bufferContacts = bufferContacts;
+    }
+
+    public boolean isBufferContacts() {
+        return bufferContacts;
+    }
+
+    /**
+     * Pre and post solve callbacks are forwarded only to fixtures whose category bits match the mask, by default all.
+     * They are skipped entirely while no script needs them, see {@link PhysicsContact#needsSolveCallbacks()}.
+     */
+    public void setSolveCategoryMask(short solveCategoryMask) {
+        this.solveCategoryMask = solveCategoryMask;
+    }
+
+    public short getSolveCategoryMask() {
+        return solveCategoryMask;
+    }
+
+    /**
+     * Called by {@link ScriptComponent} when scripts receiving solve callbacks are added or removed.
+     */
+    public void updateSolveListeners(int count) {
+        solveListeners += count;
+    }
+
+    private void processCollision(Contact contact, int type) {
         // Get both fixtures
         Fixture f1 = contact.getFixtureA();
         Fixture f2 = contact.getFixtureB();
@@ -165,59 +577,123 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener {
         // cast to entity
         int et1 = (int) o1;
         int et2 = (int) o2;
-        // get script comp
+
+        boolean async = executor != null;
+        short mask = async ? stepSolveCategoryMask : solveCategoryMask;
+        if (type >= PRE_SOLVE && mask != -1
+                && (f1.getFilterData().categoryBits & mask) == 0
+                && (f2.getFilterData().categoryBits & mask) == 0)
+            return;
+
+        if ((bufferContacts || async) && (type == BEGIN_CONTACT || type == END_CONTACT)) {
+            // scripts can't be read from the physics thread
+            if (async || hasContactListeners(et1) || hasContactListeners(et2)) {
+                bufferedContacts.add(type, et1, et2);
+                bufferedFixtures.add(f1, f2);
+                bufferedBodies.add(b1, b2);
+            }
+            return;
+        }
+
+        dispatchContact(type, et1, f1, et2, f2, contact);
+    }
+
+    private boolean hasContactListeners(int entity) {
+        ScriptComponent scriptComponent = scriptComponentMapper.get(entity);
+        return scriptComponent != null && scriptComponent.contacts.size > 0;
+    }
+
+    private void dispatchContact(int type, int et1, Fixture f1, int et2, Fixture f2, Contact contact) {
+        boolean solve = type >= PRE_SOLVE;
+        if (solve && executor != null) {
+            Array<PhysicsContact> contacts1 = stepSolveContacts.get(et1);
+            if (contacts1 != null)
+                dispatchContact(contacts1, type, et2, f2, f1, contact);
+            Array<PhysicsContact> contacts2 = stepSolveContacts.get(et2);
+            if (contacts2 != null)
+                dispatchContact(contacts2, type, et1, f1, f2, contact);
+            return;
+        }
+
         ScriptComponent ic1 = scriptComponentMapper.get(et1);
+        if (ic1 != null)
+            dispatchContact(solve ? ic1.solveContacts : ic1.contacts, type, et2, f2, f1, contact);
+
         ScriptComponent ic2 = scriptComponentMapper.get(et2);
+        if (ic2 != null)
+            dispatchContact(solve ? ic2.solveContacts : ic2.contacts, type, et1, f1, f2, contact);
+    }
 
-        // cast script to contacts, if scripts implement contacts
-        for (IScript sc : ic1.scripts) {
-            if (sc instanceof PhysicsContact) {
-                PhysicsContact ct = (PhysicsContact) sc;
-                if (preSolve) {
-                    ct.preSolve(et2, f2, f1, contact);
-                } else if (postSolve) {
-                    ct.postSolve(et2, f2, f1, contact);
-                } else if (in) {
-                    ct.beginContact(et2, f2, f1, contact);
-                } else {
-                    ct.endContact(et2, f2, f1, contact);
-                }
+    private void dispatchContact(Array<PhysicsContact> contacts, int type, int contactEntity, Fixture contactFixture,
+                                 Fixture ownFixture, Contact contact) {
+        for (int i = 0; i < contacts.size; i++) {
+            PhysicsContact ct = contacts.get(i);
+            switch (type) {
+                case BEGIN_CONTACT:
+                    ct.beginContact(contactEntity, contactFixture, ownFixture, contact);
+                    break;
+                case END_CONTACT:
+                    ct.endContact(contactEntity, contactFixture, ownFixture, contact);
+                    break;
+                case PRE_SOLVE:
+                    ct.preSolve(contactEntity, contactFixture, ownFixture, contact);
+                    break;
+                case POST_SOLVE:
+                    ct.postSolve(contactEntity, contactFixture, ownFixture, contact);
+                    break;
             }
         }
+    }
 
-        for (IScript sc : ic2.scripts) {
-            if (sc instanceof PhysicsContact) {
-                PhysicsContact ct = (PhysicsContact) sc;
-                if (preSolve) {
-                    ct.preSolve(et1, f1, f2, contact);
-                } else if (postSolve) {
-                    ct.postSolve(et1, f1, f2, contact);
-                } else if (in) {
-                    ct.beginContact(et1, f1, f2, contact);
-                } else {
-                    ct.endContact(et1, f1, f2, contact);
-                }
-            }
+    /**
+     * Dispatches the contacts recorded during the last step, skipping the ones whose bodies have been destroyed by
+     * a previous callback.
+     */
+    private void dispatchBufferedContacts() {
+        int[] items = bufferedContacts.items;
+        for (int i = 0, j = 0; i < bufferedContacts.size; i += 3, j += 2) {
+            int et1 = items[i + 1];
+            int et2 = items[i + 2];
+            if (!isBodyAlive(et1, bufferedBodies.get(j)) || !isBodyAlive(et2, bufferedBodies.get(j + 1)))
+                continue;
+            dispatchContact(items[i], et1, bufferedFixtures.get(j), et2, bufferedFixtures.get(j + 1), null);
         }
+        bufferedContacts.clear();
+        bufferedFixtures.clear();
+        bufferedBodies.clear();
+    }
+
+    private boolean isBodyAlive(int entity, Body body) {
+        PhysicsBodyComponent physicsBodyComponent = physicsBodyComponentMapper.get(entity);
+        return physicsBodyComponent != null && physicsBodyComponent.body == body;
+    }
+
+    /**
+     * The physics thread only reads the listeners recorded when the step started.
+     */
+    private boolean hasSolveListeners() {
+        return executor != null ? stepSolveContacts.size > 0 : solveListeners > 0;
     }
 
     @Override
     public void beginContact(Contact contact) {
-        processCollision(contact, true, false, false);
+        processCollision(contact, BEGIN_CONTACT);
     }
 
     @Override
     public void endContact(Contact contact) {
-        processCollision(contact, false, false, false);
+        processCollision(contact, END_CONTACT);
     }
 
     @Override
     public void preSolve(Contact contact, Manifold oldManifold) {
-        processCollision(contact, false, true, false);
+        if (!hasSolveListeners()) return;
+        processCollision(contact, PRE_SOLVE);
     }
 
     @Override
     public void postSolve(Contact contact, ContactImpulse impulse) {
-        processCollision(contact, false, false, true);
+        if (!hasSolveListeners()) return;
+        processCollision(contact, POST_SOLVE);
     }
 }
@@ -2,26 +2,84 @@ package games.rednblack.editor.renderer.systems;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
-import com.artemis.systems.IteratingSystem;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.utils.Bits;
+import games.rednblack.editor.renderer.components.MainItemComponent;
+import games.rednblack.editor.renderer.components.ParentNodeComponent;
 import games.rednblack.editor.renderer.components.TextureRegionComponent;
 import games.rednblack.editor.renderer.components.sprite.SpriteAnimationComponent;
 import games.rednblack.editor.renderer.components.sprite.SpriteAnimationStateComponent;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.ParallelIteratingSystem;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
+import games.rednblack.editor.renderer.utils.CulledUpdate;
 
+/**
+ * Advances sprite animations, optionally on worker threads. Each entity must own its
+ * {@link SpriteAnimationStateComponent#currentAnimation}: an animation shared between entities would have its
+ * frame duration set from several chunks at the same time.
+ */
 @All(SpriteAnimationComponent.class)
-public class SpriteAnimationSystem extends IteratingSystem {
+public class SpriteAnimationSystem extends ParallelIteratingSystem<Void> implements ConcurrentSystem {
     protected ComponentMapper<TextureRegionComponent> tm;
     protected ComponentMapper<SpriteAnimationStateComponent> sm;
     protected ComponentMapper<SpriteAnimationComponent> sa;
 
+    @Wire(failOnNull = false)
+    protected CullingSystem cullingSystem;
+
+    /** Culled state of the throttled animations, read by the workers instead of the flags updated by culling. */
+    private final Bits culledEntities = new Bits();
+
+    public SpriteAnimationSystem() {
+        this(0);
+    }
+
+    /**
+     * @param threads worker threads advancing the animations, 0 to advance everything on the calling thread
+     */
+    public SpriteAnimationSystem(int threads) {
+        super(threads);
+    }
+
     @Override
-    protected void process(int entityId) {
-        TextureRegionComponent tex = tm.get(entityId);
+    protected void begin() {
+        // deferred chunks of the last frame may still read the snapshot
+        join();
+        culledEntities.clear();
+        if (cullingSystem == null)
+            return;
+
+        IntBag actives = subscription.getEntities();
+        int[] ids = actives.getData();
+        for (int i = 0, s = actives.size(); i < s; i++) {
+            int entity = ids[i];
+            if (sm.get(entity).culledUpdate.policy != CulledUpdate.Policy.FULL && cullingSystem.isCulled(entity))
+                culledEntities.set(entity);
+        }
+    }
+
+    @Override
+    protected void process(int entityId, Void scratch) {
         SpriteAnimationStateComponent state = sm.get(entityId);
+        boolean culled = culledEntities.get(entityId);
+        float delta = state.culledUpdate.step(world.delta, culled);
+        if (culled && delta == 0)
+            return;
+
+        TextureRegionComponent tex = tm.get(entityId);
         state.currentAnimation.setFrameDuration(1f / sa.get(entityId).fps);
         tex.region = state.currentAnimation.getKeyFrame(state.time);
 
         if (!state.paused) {
-            state.time += world.delta;
+            state.time += delta;
         }
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.read(SpriteAnimationComponent.class, MainItemComponent.class, ParentNodeComponent.class)
+                .write(SpriteAnimationStateComponent.class, TextureRegionComponent.class);
+    }
 }
@@ -4,53 +4,121 @@ import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
 import com.rafaskoberg.gdx.typinglabel.TypingLabel;
 import games.rednblack.editor.renderer.components.DimensionsComponent;
 import games.rednblack.editor.renderer.components.label.LabelComponent;
 import games.rednblack.editor.renderer.components.label.TypingLabelComponent;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
 
 @All({TypingLabelComponent.class, LabelComponent.class})
-public class TypingLabelSystem extends IteratingSystem {
+public class TypingLabelSystem extends IteratingSystem implements ConcurrentSystem {
     protected ComponentMapper<LabelComponent> labelComponentMapper;
     protected ComponentMapper<TypingLabelComponent> typingLabelComponentMapper;
     protected ComponentMapper<DimensionsComponent> dimensionsComponentMapper;
 
+    private final ObjectMap<BitmapFont, Pool<TypingLabel>> pools = new ObjectMap<>();
+
     @Override
     protected void process(int entity) {
         TypingLabelComponent typingLabelComponent = typingLabelComponentMapper.get(entity);
         LabelComponent labelComponent = labelComponentMapper.get(entity);
         DimensionsComponent dimensionsComponent = dimensionsComponentMapper.get(entity);
+        TypingLabel typingLabel = typingLabelComponent.typingLabel;
+
+        // fields may also be written directly, without bumping the version
+        boolean changed = typingLabelComponent.labelVersion != labelComponent.getVersion()
+                || (typingLabel != null && (!typingLabel.getOriginalText().equals(labelComponent.text)
+                || typingLabel.getWrap() != labelComponent.wrap
+                || typingLabel.getLabelAlign() != labelComponent.labelAlign
+                || typingLabel.getLineAlign() != labelComponent.lineAlign));
+        if (typingLabel != null && !changed && typingLabel.hasEnded() && !typingLabelComponent.hasTokens
+                && typingLabel.getWidth() == dimensionsComponent.width && typingLabel.getHeight() == dimensionsComponent.height) {
+            // typing has ended and there are no effects to animate, nothing to do until the label changes
+            return;
+        }
+
+        if (typingLabel == null) {
+            BitmapFont font = labelComponent.style.font;
+            Pool<TypingLabel> pool = pools.get(font);
+            if (pool == null) {
+                pool = new TypingLabelPool(labelComponent.style);
+                pools.put(font, pool);
+            }
 
-        if (typingLabelComponent.typingLabel == null) {
-            typingLabelComponent.typingLabel = new TypingLabel(labelComponent.text, labelComponent.style);
-            BitmapFont font = typingLabelComponent.typingLabel.getBitmapFontCache().getFont();
+            typingLabel = pool.obtain();
+            if (typingLabel.getStyle() != labelComponent.style)
+                typingLabel.setStyle(labelComponent.style);
+            typingLabel.restart(labelComponent.text);
+            typingLabelComponent.typingLabel = typingLabel;
+            typingLabelComponent.pool = pool;
 
             float fontScaleX = labelComponent.fontScaleX;
             float fontScaleY = labelComponent.fontScaleY;
 
             if (fontScaleX != 1 || fontScaleY != 1) font.getData().setScale(fontScaleX, fontScaleY);
-            typingLabelComponent.typingLabel.setSize(dimensionsComponent.width, dimensionsComponent.height);
-            typingLabelComponent.typingLabel.setWrap(labelComponent.wrap);
-            typingLabelComponent.typingLabel.setAlignment(labelComponent.labelAlign, labelComponent.lineAlign);
+            typingLabel.setSize(dimensionsComponent.width, dimensionsComponent.height);
+            typingLabel.setWrap(labelComponent.wrap);
+            typingLabel.setAlignment(labelComponent.labelAlign, labelComponent.lineAlign);
+            changed = true;
         } else {
-            if (!typingLabelComponent.typingLabel.getOriginalText().equals(labelComponent.text)){
-                typingLabelComponent.typingLabel.setText(labelComponent.text);
+            if (changed) {
+                if (!typingLabel.getOriginalText().equals(labelComponent.text)) {
+                    typingLabel.setText(labelComponent.text);
+                }
+                if (typingLabel.getWrap() != labelComponent.wrap) {
+                    typingLabel.setWrap(labelComponent.wrap);
+                }
+                if (typingLabel.getLabelAlign() != labelComponent.labelAlign
+                        || typingLabel.getLineAlign() != labelComponent.lineAlign) {
+                    typingLabel.setAlignment(labelComponent.labelAlign, labelComponent.lineAlign);
+                }
             }
-            if (typingLabelComponent.typingLabel.getWrap() != labelComponent.wrap) {
-                typingLabelComponent.typingLabel.setWrap(labelComponent.wrap);
+            if (typingLabel.getWidth() != dimensionsComponent.width) {
+                typingLabel.setWidth(dimensionsComponent.width);
             }
-            if (typingLabelComponent.typingLabel.getLabelAlign() != labelComponent.labelAlign
-                    || typingLabelComponent.typingLabel.getLineAlign() != labelComponent.lineAlign) {
-                typingLabelComponent.typingLabel.setAlignment(labelComponent.labelAlign, labelComponent.lineAlign);
-            }
-            if (typingLabelComponent.typingLabel.getWidth() != dimensionsComponent.width) {
-                typingLabelComponent.typingLabel.setWidth(dimensionsComponent.width);
-            }
-            if (typingLabelComponent.typingLabel.getHeight() != dimensionsComponent.height) {
-                typingLabelComponent.typingLabel.setHeight(dimensionsComponent.height);
+            if (typingLabel.getHeight() != dimensionsComponent.height) {
+                typingLabel.setHeight(dimensionsComponent.height);
             }
         }
 
-        typingLabelComponent.typingLabel.act(world.getDelta());
+        if (changed) {
+            typingLabelComponent.labelVersion = labelComponent.getVersion();
+            typingLabelComponent.hasTokens = labelComponent.text.indexOf("{") != -1;
+        }
+
+        typingLabel.act(world.getDelta());
+    }
+
+    /**
+     * Reuses {@link TypingLabel}s of the same font, new labels are created with the style of the first one.
+     */
+    private static class TypingLabelPool extends Pool<TypingLabel> {
+        private final Label.LabelStyle style;
+
+        TypingLabelPool(Label.LabelStyle style) {
+            this.style = style;
+        }
+
+        @Override
+        protected TypingLabel newObject() {
+            return new TypingLabel("", style);
+        }
+
+        @Override
+        protected void reset(TypingLabel typingLabel) {
+            typingLabel.remove();
+            typingLabel.setTypingListener(null);
+        }
+    }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.read(DimensionsComponent.class)
+                .write(LabelComponent.class, TypingLabelComponent.class)
+                .mainThread();
     }
 }
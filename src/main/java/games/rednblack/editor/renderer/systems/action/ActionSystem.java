@@ -2,19 +2,43 @@ package games.rednblack.editor.renderer.systems.action;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Wire;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.utils.Array;
 import games.rednblack.editor.renderer.components.ActionComponent;
+import games.rednblack.editor.renderer.components.DimensionsComponent;
+import games.rednblack.editor.renderer.components.TintComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
 import games.rednblack.editor.renderer.systems.action.data.ActionData;
 import games.rednblack.editor.renderer.systems.action.logic.ActionLogic;
+import games.rednblack.editor.renderer.systems.event.ActionCompletedEvent;
+import games.rednblack.editor.renderer.systems.event.EntityEventBus;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.EntityCommandBuffer;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
 
 /**
  * Created by ZeppLondon on 10/13/2015.
  */
 @All(ActionComponent.class)
-public class ActionSystem extends IteratingSystem {
+public class ActionSystem extends IteratingSystem implements ConcurrentSystem {
     protected ComponentMapper<ActionComponent> actionMapper;
 
+    @Wire(failOnNull = false)
+    protected EntityCommandBuffer commandBuffer;
+    @Wire(failOnNull = false)
+    protected EntityEventBus eventBus;
+
+    private final EntityCommandBuffer.EntityCommand removeIfFinished = new EntityCommandBuffer.EntityCommand() {
+        @Override
+        public void execute(int entity) {
+            ActionComponent actionComponent = actionMapper.get(entity);
+            if (actionComponent != null && actionComponent.dataArray.size == 0)
+                actionMapper.remove(entity);
+        }
+    };
+
     @Override
     protected void initialize() {
         super.initialize();
@@ -24,18 +48,43 @@ public class ActionSystem extends IteratingSystem {
     protected void process(int entity) {
         ActionComponent actionComponent = actionMapper.get(entity);
         Array<ActionData> dataArray = actionComponent.dataArray;
-        for (int i = 0; i < dataArray.size; i++) {
+        for (int i = 0; i < dataArray.size; ) {
             ActionData data = dataArray.get(i);
-            ActionLogic actionLogic = Actions.actionLogicMap.get(data.logicClassName);
+            ActionLogic actionLogic = Actions.getLogic(data);
             if (actionLogic.act(world.getDelta(), entity, data)) {
-                dataArray.removeValue(data, true);
-                if (data.getPool() != null)
-                    data.getPool().free(data);
+                int logicId = data.logicId;
+                // the action may have been removed by its own logic
+                if (i < dataArray.size && dataArray.get(i) == data) {
+                    // swap remove, actions of the same entity are independent
+                    dataArray.set(i, dataArray.peek());
+                    dataArray.pop();
+                    if (data.getPool() != null)
+                        data.getPool().free(data);
+                }
+                if (eventBus != null) {
+                    ActionCompletedEvent event = eventBus.obtain(ActionCompletedEvent.class);
+                    event.entity = entity;
+                    event.logicId = logicId;
+                    event.remaining = dataArray.size;
+                    eventBus.post(event);
+                }
+            } else {
+                i++;
             }
         }
 
         if (dataArray.size == 0) {
-            actionMapper.remove(entity);
+            if (commandBuffer != null)
+                commandBuffer.run(entity, removeIfFinished);
+            else
+                actionMapper.remove(entity);
         }
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.write(ActionComponent.class, TransformComponent.class, DimensionsComponent.class)
+                .write(TintComponent.class, PhysicsBodyComponent.class)
+                .mainThread();
+    }
 }
@@ -1,14 +1,19 @@
 package games.rednblack.editor.renderer.systems.action;
 
 import com.artemis.BaseComponentMapper;
+import com.artemis.EntityEdit;
 import com.artemis.World;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectIntMap;
 import com.badlogic.gdx.utils.Pool;
 import com.badlogic.gdx.utils.Pools;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.badlogic.gdx.utils.reflect.ReflectionException;
-import games.rednblack.editor.renderer.components.ActionComponent;
+import games.rednblack.editor.renderer.components.*;
 import games.rednblack.editor.renderer.systems.action.data.*;
 import games.rednblack.editor.renderer.systems.action.logic.*;
 import games.rednblack.editor.renderer.utils.ComponentRetriever;
@@ -23,6 +28,9 @@ public class Actions {
 
     public static HashMap<String, ActionLogic> actionLogicMap = new HashMap<>();
     public static HashMap<String, String> actionDataLogicMap = new HashMap<>();
+    /** Registered logics indexed by their id, see {@link ActionData#logicId}. */
+    public static final Array<ActionLogic> actionLogics = new Array<>();
+    private static final ObjectIntMap<String> actionLogicIds = new ObjectIntMap<>();
     private static boolean initialized;
 
     private static void initialize() throws ReflectionException {
@@ -49,11 +57,34 @@ public class Actions {
 
     public static <T extends ActionLogic, U extends ActionData> void registerActionClass(Class<U> typeData, Class<T> type) throws ReflectionException {
         if (!actionLogicMap.containsKey(type.getName())) {
-            actionLogicMap.put(type.getName(), ClassReflection.newInstance(type));
+            ActionLogic logic = ClassReflection.newInstance(type);
+            actionLogicMap.put(type.getName(), logic);
             actionDataLogicMap.put(typeData.getName(), type.getName());
+            actionLogicIds.put(type.getName(), actionLogics.size);
+            actionLogics.add(logic);
         }
     }
 
+    /**
+     * @return the dense id of a registered logic class, -1 if not registered
+     */
+    public static int getLogicId(String logicClassName) {
+        return actionLogicIds.get(logicClassName, -1);
+    }
+
+    /**
+     * Returns the logic of the given data through its {@link ActionData#logicId},
+     * resolved once from {@link ActionData#logicClassName} when missing.
+     */
+    public static ActionLogic getLogic(ActionData data) {
+        int id = data.logicId;
+        if (id < 0) {
+            id = getLogicId(data.logicClassName);
+            data.logicId = id;
+        }
+        return actionLogics.get(id);
+    }
+
     static public <T extends ActionData> T actionData(Class<T> type) {
         return actionData(type, true);
     }
@@ -65,6 +96,7 @@ public class Actions {
         if (autoPoolable)
             action.setPool(pool);
         action.logicClassName = actionDataLogicMap.get(type.getName());
+        action.logicId = getLogicId(action.logicClassName);
         return action;
     }
 
@@ -333,6 +365,59 @@ public class Actions {
         actionComponent.dataArray.add(data);
     }
 
+    /**
+     * Runs the action once for all the given entities, see {@link GroupActionSystem}. Each frame the timeline is
+     * evaluated on a proxy entity and its changes are added to the members, so only relative actions (moveBy,
+     * rotateBy, scaleBy, sizeBy and their sequences, parallels, delays and repeats) are supported.
+     *
+     * @param phases optional delay of each member on the shared timeline, in seconds
+     * @return the proxy entity, delete it to stop the group action
+     * @throws IllegalArgumentException if the action contains an absolute action such as moveTo or color
+     */
+    public static int addGroupAction(World engine, IntArray entities, FloatArray phases, ActionData data) {
+        checkRelative(data);
+
+        int proxy = engine.create();
+        EntityEdit edit = engine.edit(proxy);
+        TransformComponent transform = edit.create(TransformComponent.class);
+        DimensionsComponent dimensions = edit.create(DimensionsComponent.class);
+        TintComponent tint = edit.create(TintComponent.class);
+        tint.color.set(Color.WHITE);
+
+        GroupActionComponent group = edit.create(GroupActionComponent.class);
+        group.addSample(0, transform, dimensions, tint);
+        for (int i = 0; i < entities.size; i++) {
+            group.addMember(entities.get(i), phases != null ? phases.get(i) : 0, group.samples.items);
+        }
+
+        addAction(engine, proxy, data);
+        return proxy;
+    }
+
+    private static void checkRelative(ActionData data) {
+        if (data == null) return;
+        if ((data instanceof TemporalData && !(data instanceof RelativeTemporalData)) || data instanceof ForceData)
+            throw new IllegalArgumentException("Group actions only support relative actions, found " + ClassReflection.getSimpleName(data.getClass()));
+
+        if (data instanceof ParallelData) {
+            Array<ActionData> actionsData = ((ParallelData) data).actionsData;
+            for (int i = 0; i < actionsData.size; i++)
+                checkRelative(actionsData.get(i));
+        } else if (data instanceof DelegateData) {
+            checkRelative(((DelegateData) data).delegatedData);
+        }
+    }
+
+    /**
+     * Runs the action on the {@link TweenSystem} when the world has one and the action is a plain moveTo, scaleTo,
+     * rotateTo, sizeTo or alpha, otherwise adds it as a regular action.
+     */
+    public static void addTween(World engine, int entity, ActionData data) {
+        TweenSystem tweenSystem = engine.getSystem(TweenSystem.class);
+        if (tweenSystem == null || !tweenSystem.add(entity, data))
+            addAction(engine, entity, data);
+    }
+
     public static void removeActions(int entity) {
         ActionComponent actionComponent = ComponentRetriever.get(entity, ActionComponent.class);
         if (actionComponent != null) {
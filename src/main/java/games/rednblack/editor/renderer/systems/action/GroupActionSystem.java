@@ -0,0 +1,197 @@
+package games.rednblack.editor.renderer.systems.action;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.annotations.All;
+import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Bits;
+import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
+
+import static games.rednblack.editor.renderer.components.GroupActionComponent.PROPERTIES;
+
+/**
+ * Applies the shared timeline of group actions, see {@link Actions#addGroupAction(com.artemis.World, com.badlogic.gdx.utils.IntArray, com.badlogic.gdx.utils.FloatArray, games.rednblack.editor.renderer.systems.action.data.ActionData)}.
+ * <p>
+ * The actions are evaluated once on the proxy entity by {@link ActionSystem}, then every member receives the change
+ * of the proxy state since its last update: members keep their own position, size and tint and the timeline is added
+ * on top of them, which is why only relative actions are accepted. Tint changes are accumulated unclamped so a member
+ * doesn't drift when the proxy tint goes out of range and back. Phased members read the timeline in the past, so it's
+ * recorded for the longest phase.
+ */
+@All(GroupActionComponent.class)
+public class GroupActionSystem extends IteratingSystem implements ConcurrentSystem {
+    protected ComponentMapper<GroupActionComponent> groupMapper;
+    protected ComponentMapper<ActionComponent> actionMapper;
+    protected ComponentMapper<TransformComponent> transformMapper;
+    protected ComponentMapper<DimensionsComponent> dimensionsMapper;
+    protected ComponentMapper<TintComponent> tintMapper;
+
+    private final float[] sample = new float[PROPERTIES];
+    private final Bits removedEntities = new Bits();
+
+    @Override
+    protected void initialize() {
+        super.initialize();
+
+        world.getAspectSubscriptionManager()
+                .get(Aspect.all())
+                .addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+                    @Override
+                    public void inserted(IntBag entities) {
+
+                    }
+
+                    @Override
+                    public void removed(IntBag entities) {
+                        removeMembers(entities);
+                    }
+                });
+    }
+
+    @Override
+    protected void process(int entity) {
+        GroupActionComponent group = groupMapper.get(entity);
+
+        group.time += world.getDelta();
+        group.addSample(group.time, transformMapper.get(entity), dimensionsMapper.get(entity), tintMapper.get(entity));
+
+        ActionComponent actionComponent = actionMapper.get(entity);
+        if (group.finishTime < 0 && (actionComponent == null || actionComponent.dataArray.size == 0))
+            group.finishTime = group.time;
+
+        trim(group);
+
+        float[] applied = group.applied.items;
+        for (int i = 0; i < group.members.size; i++) {
+            sample(group, group.time - group.phases.get(i));
+
+            int member = group.members.get(i);
+            int offset = i * PROPERTIES;
+            TransformComponent transform = transformMapper.get(member);
+            if (transform != null) {
+                transform.x += sample[0] - applied[offset];
+                transform.y += sample[1] - applied[offset + 1];
+                transform.scaleX += sample[2] - applied[offset + 2];
+                transform.scaleY += sample[3] - applied[offset + 3];
+                transform.rotation += sample[4] - applied[offset + 4];
+            }
+            DimensionsComponent dimensions = dimensionsMapper.get(member);
+            if (dimensions != null) {
+                dimensions.width += sample[5] - applied[offset + 5];
+                dimensions.height += sample[6] - applied[offset + 6];
+            }
+            TintComponent tint = tintMapper.get(member);
+            if (tint != null)
+                applyTint(tint.color, group.tints.items, i * 4, sample, applied, offset);
+            System.arraycopy(sample, 0, applied, offset, PROPERTIES);
+        }
+
+        if (group.members.size == 0 || (group.finishTime >= 0 && group.time - group.maxPhase >= group.finishTime))
+            world.delete(entity);
+    }
+
+    /**
+     * Adds the tint change to the unclamped member tint, restarting from the member color when something else
+     * changed it, and writes the clamped result.
+     */
+    private void applyTint(Color color, float[] tints, int index, float[] sample, float[] applied, int offset) {
+        if (color.r != MathUtils.clamp(tints[index], 0f, 1f) || color.g != MathUtils.clamp(tints[index + 1], 0f, 1f)
+                || color.b != MathUtils.clamp(tints[index + 2], 0f, 1f) || color.a != MathUtils.clamp(tints[index + 3], 0f, 1f)) {
+            tints[index] = color.r;
+            tints[index + 1] = color.g;
+            tints[index + 2] = color.b;
+            tints[index + 3] = color.a;
+        }
+
+        tints[index] += sample[7] - applied[offset + 7];
+        tints[index + 1] += sample[8] - applied[offset + 8];
+        tints[index + 2] += sample[9] - applied[offset + 9];
+        tints[index + 3] += sample[10] - applied[offset + 10];
+        color.set(tints[index], tints[index + 1], tints[index + 2], tints[index + 3]);
+    }
+
+    /**
+     * Drops the samples no member can read anymore, keeping the last one before the longest phase.
+     */
+    private void trim(GroupActionComponent group) {
+        float[] times = group.sampleTimes.items;
+        float oldest = group.time - group.maxPhase;
+        while (group.sampleTimes.size - group.head >= 2 && times[group.head + 1] <= oldest)
+            group.head++;
+
+        if (group.head > 32 && group.head * 2 > group.sampleTimes.size) {
+            int kept = group.sampleTimes.size - group.head;
+            System.arraycopy(times, group.head, times, 0, kept);
+            System.arraycopy(group.samples.items, group.head * PROPERTIES, group.samples.items, 0, kept * PROPERTIES);
+            group.sampleTimes.size = kept;
+            group.samples.size = kept * PROPERTIES;
+            group.head = 0;
+        }
+    }
+
+    /**
+     * Interpolates the recorded timeline at the given time into {@link #sample}.
+     */
+    private void sample(GroupActionComponent group, float time) {
+        float[] times = group.sampleTimes.items;
+        float[] samples = group.samples.items;
+        int low = group.head, high = group.sampleTimes.size - 1;
+
+        if (time >= times[high]) {
+            System.arraycopy(samples, high * PROPERTIES, sample, 0, PROPERTIES);
+            return;
+        }
+        if (time <= times[low]) {
+            System.arraycopy(samples, low * PROPERTIES, sample, 0, PROPERTIES);
+            return;
+        }
+
+        // last sample not after the given time
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] <= time) low = middle;
+            else high = middle;
+        }
+
+        float alpha = (time - times[low]) / (times[high] - times[low]);
+        int from = low * PROPERTIES, to = high * PROPERTIES;
+        for (int i = 0; i < PROPERTIES; i++)
+            sample[i] = samples[from + i] + (samples[to + i] - samples[from + i]) * alpha;
+    }
+
+    private void removeMembers(IntBag entities) {
+        IntBag groups = subscription.getEntities();
+        if (groups.isEmpty()) return;
+
+        int[] ids = entities.getData();
+        for (int i = 0, n = entities.size(); i < n; i++)
+            removedEntities.set(ids[i]);
+
+        int[] groupIds = groups.getData();
+        for (int i = 0, n = groups.size(); i < n; i++) {
+            GroupActionComponent group = groupMapper.get(groupIds[i]);
+            if (group == null) continue;
+            for (int j = group.members.size - 1; j >= 0; j--) {
+                if (removedEntities.get(group.members.get(j)))
+                    group.removeMemberIndex(j);
+            }
+        }
+
+        for (int i = 0, n = entities.size(); i < n; i++)
+            removedEntities.clear(ids[i]);
+    }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.read(ActionComponent.class)
+                .write(GroupActionComponent.class, TransformComponent.class, DimensionsComponent.class)
+                .write(TintComponent.class)
+                .mainThread();
+    }
+}
@@ -0,0 +1,428 @@
+package games.rednblack.editor.renderer.systems.action;
+
+import com.artemis.Aspect;
+import com.artemis.BaseSystem;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import games.rednblack.editor.renderer.components.DimensionsComponent;
+import games.rednblack.editor.renderer.components.TintComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.systems.action.data.*;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentSystem;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
+
+/**
+ * Tween store for mass animations: every tween animates a single float property of an entity and is kept as a row of
+ * primitive arrays, updated in tight loops instead of through {@link games.rednblack.editor.renderer.systems.action.logic.ActionLogic}s.
+ * <p>
+ * Tweens are fire and forget: no callbacks, no sequences. Use {@link Actions#addTween(com.artemis.World, int, ActionData)}
+ * to run the usual moveTo, scaleTo, rotateTo, sizeTo and alpha builders here. Like their actions, tweens read the start
+ * value when they begin and a new tween of a property replaces the running one.
+ * <p>
+ * With worker threads, interpolations are computed in chunks on an {@link AsyncExecutor}; values are always written to
+ * the components on the calling thread.
+ */
+public class TweenSystem extends BaseSystem implements ConcurrentSystem {
+
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int SCALE_X = 2;
+    public static final int SCALE_Y = 3;
+    public static final int ROTATION = 4;
+    public static final int WIDTH = 5;
+    public static final int HEIGHT = 6;
+    public static final int ALPHA = 7;
+
+    /** Interpolation id of a linear tween. */
+    public static final int LINEAR = -1;
+
+    private static final Array<Interpolation> interpolations = new Array<>();
+    private static final ObjectIntMap<Interpolation> interpolationIds = new ObjectIntMap<>();
+
+    protected ComponentMapper<TransformComponent> transformMapper;
+    protected ComponentMapper<DimensionsComponent> dimensionsMapper;
+    protected ComponentMapper<TintComponent> tintMapper;
+
+    private int size;
+    private int[] entities = new int[64];
+    private int[] properties = new int[64];
+    private int[] interpolation = new int[64];
+    private float[] start = new float[64];
+    private float[] end = new float[64];
+    private float[] duration = new float[64];
+    private float[] elapsed = new float[64];
+    private float[] values = new float[64];
+    private boolean[] began = new boolean[64];
+
+    /** Number of rows of each entity, indexed by entity id. */
+    private int[] tweenCounts = new int[64];
+
+    private final int threads;
+    private AsyncExecutor executor;
+    private boolean ownsExecutor;
+    private final Array<Chunk> chunks = new Array<>();
+
+    /** Minimum number of tweens of a chunk, smaller stores are computed on the calling thread. */
+    protected int minChunkSize = 4096;
+
+    public TweenSystem() {
+        this(0);
+    }
+
+    /**
+     * @param threads worker threads computing the interpolations, 0 to compute everything on the calling thread
+     */
+    public TweenSystem(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Computes the chunks on a shared executor instead of creating a new one, must be called before the system
+     * is initialized. The executor is not disposed by this system.
+     */
+    public void setExecutor(AsyncExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    protected void initialize() {
+        if (threads > 0) {
+            if (executor == null) {
+                executor = new AsyncExecutor(threads, getClass().getSimpleName());
+                ownsExecutor = true;
+            }
+            for (int i = 0; i < threads; i++) {
+                chunks.add(new Chunk());
+            }
+        }
+
+        world.getAspectSubscriptionManager()
+                .get(Aspect.all())
+                .addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+                    @Override
+                    public void inserted(IntBag entities) {
+
+                    }
+
+                    @Override
+                    public void removed(IntBag entities) {
+                        removeTweens(entities);
+                    }
+                });
+    }
+
+    /**
+     * Returns the id of the given interpolation, registering it the first time. Null is {@link #LINEAR}.
+     */
+    public static int getInterpolationId(Interpolation interpolation) {
+        if (interpolation == null || interpolation == Interpolation.linear)
+            return LINEAR;
+        int id = interpolationIds.get(interpolation, -1);
+        if (id == -1) {
+            id = interpolations.size;
+            interpolations.add(interpolation);
+            interpolationIds.put(interpolation, id);
+        }
+        return id;
+    }
+
+    /**
+     * Animates a property of the entity from its current value to the given one, replacing the tween of the same
+     * property if any.
+     *
+     * @param property one of {@link #X}, {@link #Y}, {@link #SCALE_X}, {@link #SCALE_Y}, {@link #ROTATION},
+     *                 {@link #WIDTH}, {@link #HEIGHT}, {@link #ALPHA}
+     * @param delay    seconds to wait before the tween begins
+     */
+    public void add(int entity, int property, float end, float duration, Interpolation interpolation, float delay) {
+        if (hasTweens(entity)) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (entities[i] == entity && properties[i] == property) {
+                    removeIndex(i);
+                    tweenCounts[entity]--;
+                }
+            }
+        }
+
+        if (size == entities.length)
+            resize(size * 2);
+
+        int i = size++;
+        entities[i] = entity;
+        properties[i] = property;
+        this.interpolation[i] = getInterpolationId(interpolation);
+        this.end[i] = end;
+        this.duration[i] = duration;
+        elapsed[i] = -delay;
+        began[i] = false;
+        if (entity >= tweenCounts.length) {
+            int[] counts = new int[Math.max(entity + 1, tweenCounts.length * 2)];
+            System.arraycopy(tweenCounts, 0, counts, 0, tweenCounts.length);
+            tweenCounts = counts;
+        }
+        tweenCounts[entity]++;
+    }
+
+    public void add(int entity, int property, float end, float duration, Interpolation interpolation) {
+        add(entity, property, end, duration, interpolation, 0);
+    }
+
+    /**
+     * Converts the data of a moveTo, scaleTo, rotateTo, sizeTo or alpha action to tweens of the entity and frees it.
+     *
+     * @return false if the action can't run as tweens, the data is left untouched
+     */
+    public boolean add(int entity, ActionData data) {
+        if (data instanceof MoveToData) {
+            MoveToData moveTo = (MoveToData) data;
+            add(entity, X, moveTo.endX, moveTo.duration, moveTo.interpolation);
+            add(entity, Y, moveTo.endY, moveTo.duration, moveTo.interpolation);
+        } else if (data instanceof ScaleToData) {
+            ScaleToData scaleTo = (ScaleToData) data;
+            add(entity, SCALE_X, scaleTo.endX, scaleTo.duration, scaleTo.interpolation);
+            add(entity, SCALE_Y, scaleTo.endY, scaleTo.duration, scaleTo.interpolation);
+        } else if (data instanceof SizeToData) {
+            SizeToData sizeTo = (SizeToData) data;
+            add(entity, WIDTH, sizeTo.endWidth, sizeTo.duration, sizeTo.interpolation);
+            add(entity, HEIGHT, sizeTo.endHeight, sizeTo.duration, sizeTo.interpolation);
+        } else if (data instanceof RotateToData) {
+            RotateToData rotateTo = (RotateToData) data;
+            add(entity, ROTATION, rotateTo.end, rotateTo.duration, rotateTo.interpolation);
+        } else if (data instanceof AlphaData) {
+            AlphaData alpha = (AlphaData) data;
+            add(entity, ALPHA, alpha.end, alpha.duration, alpha.interpolation);
+        } else {
+            return false;
+        }
+
+        if (data.getPool() != null)
+            data.getPool().free(data);
+        return true;
+    }
+
+    /**
+     * Stops all the tweens of the entity, leaving its properties as they are.
+     */
+    public void removeTweens(int entity) {
+        if (!hasTweens(entity)) return;
+        tweenCounts[entity] = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            if (entities[i] == entity)
+                removeIndex(i);
+        }
+    }
+
+    public boolean hasTweens(int entity) {
+        return entity < tweenCounts.length && tweenCounts[entity] > 0;
+    }
+
+    /**
+     * @return number of running tweens
+     */
+    public int size() {
+        return size;
+    }
+
+    private void removeTweens(IntBag removed) {
+        int[] ids = removed.getData();
+        boolean any = false;
+        for (int i = 0, n = removed.size(); i < n; i++) {
+            if (hasTweens(ids[i])) {
+                tweenCounts[ids[i]] = 0;
+                any = true;
+            }
+        }
+        if (!any) return;
+
+        // removed entities have no count anymore, drop all their rows in one pass
+        for (int i = size - 1; i >= 0; i--) {
+            if (tweenCounts[entities[i]] == 0)
+                removeIndex(i);
+        }
+    }
+
+    @Override
+    protected void processSystem() {
+        if (size == 0) return;
+
+        float delta = world.getDelta();
+        for (int i = 0; i < size; i++) {
+            float time = elapsed[i] += delta;
+            if (!began[i] && time >= 0) {
+                start[i] = read(entities[i], properties[i]);
+                began[i] = true;
+            }
+        }
+
+        int chunkCount = Math.min(threads + 1, size / Math.max(1, minChunkSize));
+        if (chunkCount <= 1) {
+            compute(0, size);
+        } else {
+            int chunkSize = (size + chunkCount - 1) / chunkCount;
+            int pending = 0;
+            int from = 0;
+            while (from + chunkSize < size) {
+                Chunk chunk = chunks.get(pending++);
+                chunk.from = from;
+                chunk.to = from + chunkSize;
+                chunk.result = executor.submit(chunk);
+                from += chunkSize;
+            }
+            compute(from, size);
+            for (int i = 0; i < pending; i++) {
+                Chunk chunk = chunks.get(i);
+                chunk.result.get();
+                chunk.result = null;
+            }
+        }
+
+        for (int i = size - 1; i >= 0; i--) {
+            if (!began[i]) continue;
+            int entity = entities[i];
+            write(entity, properties[i], values[i]);
+            if (elapsed[i] >= duration[i]) {
+                removeIndex(i);
+                tweenCounts[entity]--;
+            }
+        }
+    }
+
+    private void compute(int from, int to) {
+        int[] interpolation = this.interpolation;
+        float[] start = this.start, end = this.end, duration = this.duration, elapsed = this.elapsed, values = this.values;
+        boolean[] began = this.began;
+        for (int i = from; i < to; i++) {
+            if (!began[i]) continue;
+            float percent;
+            if (elapsed[i] >= duration[i]) {
+                percent = 1;
+            } else {
+                percent = elapsed[i] / duration[i];
+                int id = interpolation[i];
+                if (id != LINEAR) percent = interpolations.get(id).apply(percent);
+            }
+            values[i] = start[i] + (end[i] - start[i]) * percent;
+        }
+    }
+
+    private float read(int entity, int property) {
+        switch (property) {
+            case X:
+                return transformMapper.get(entity).x;
+            case Y:
+                return transformMapper.get(entity).y;
+            case SCALE_X:
+                return transformMapper.get(entity).scaleX;
+            case SCALE_Y:
+                return transformMapper.get(entity).scaleY;
+            case ROTATION:
+                return transformMapper.get(entity).rotation;
+            case WIDTH:
+                return dimensionsMapper.get(entity).width;
+            case HEIGHT:
+                return dimensionsMapper.get(entity).height;
+            case ALPHA:
+                return tintMapper.get(entity).color.a;
+            default:
+                throw new IllegalArgumentException("Unknown tween property: " + property);
+        }
+    }
+
+    private void write(int entity, int property, float value) {
+        switch (property) {
+            case X:
+                transformMapper.get(entity).x = value;
+                break;
+            case Y:
+                transformMapper.get(entity).y = value;
+                break;
+            case SCALE_X:
+                transformMapper.get(entity).scaleX = value;
+                break;
+            case SCALE_Y:
+                transformMapper.get(entity).scaleY = value;
+                break;
+            case ROTATION:
+                transformMapper.get(entity).rotation = value;
+                break;
+            case WIDTH:
+                dimensionsMapper.get(entity).width = value;
+                break;
+            case HEIGHT:
+                dimensionsMapper.get(entity).height = value;
+                break;
+            case ALPHA:
+                tintMapper.get(entity).color.a = value;
+                break;
+        }
+    }
+
+    private void removeIndex(int i) {
+        int last = --size;
+        entities[i] = entities[last];
+        properties[i] = properties[last];
+        interpolation[i] = interpolation[last];
+        start[i] = start[last];
+        end[i] = end[last];
+        duration[i] = duration[last];
+        elapsed[i] = elapsed[last];
+        values[i] = values[last];
+        began[i] = began[last];
+    }
+
+    private void resize(int capacity) {
+        entities = copy(entities, capacity);
+        properties = copy(properties, capacity);
+        interpolation = copy(interpolation, capacity);
+        start = copy(start, capacity);
+        end = copy(end, capacity);
+        duration = copy(duration, capacity);
+        elapsed = copy(elapsed, capacity);
+        values = copy(values, capacity);
+        boolean[] newBegan = new boolean[capacity];
+        System.arraycopy(began, 0, newBegan, 0, size);
+        began = newBegan;
+    }
+
+    private int[] copy(int[] array, int capacity) {
+        int[] copy = new int[capacity];
+        System.arraycopy(array, 0, copy, 0, size);
+        return copy;
+    }
+
+    private float[] copy(float[] array, int capacity) {
+        float[] copy = new float[capacity];
+        System.arraycopy(array, 0, copy, 0, size);
+        return copy;
+    }
+
+    @Override
+    protected void dispose() {
+        if (ownsExecutor)
+            executor.dispose();
+    }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.write(TransformComponent.class, DimensionsComponent.class, TintComponent.class)
+                .mainThread();
+    }
+
+    private class Chunk implements AsyncTask<Void> {
+        int from, to;
+        AsyncResult<Void> result;
+
+        @Override
+        public Void call() {
+            compute(from, to);
+            return null;
+        }
+    }
+}
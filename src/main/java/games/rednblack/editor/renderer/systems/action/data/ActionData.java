@@ -8,6 +8,8 @@ import com.badlogic.gdx.utils.Pool;
  */
 public class ActionData implements Pool.Poolable {
     public String logicClassName;
+    /** Dense id of the logic, resolved from {@link #logicClassName} when -1. */
+    public int logicId = -1;
     public boolean detached;
 
     private @Null Pool pool;
@@ -15,6 +17,7 @@ public class ActionData implements Pool.Poolable {
     @Override
     public void reset() {
         logicClassName = null;
+        logicId = -1;
         detached = false;
         pool = null;
     }
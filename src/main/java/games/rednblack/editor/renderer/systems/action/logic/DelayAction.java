@@ -16,7 +16,7 @@ public class DelayAction<T extends DelayData> extends DelegateAction<T> {
         }
 
         if (actionData.delegatedData != null) {
-            ActionLogic logic = Actions.actionLogicMap.get(actionData.delegatedData.logicClassName);
+            ActionLogic logic = Actions.getLogic(actionData.delegatedData);
 
             return logic.act(delta, entity, actionData.delegatedData);
         }
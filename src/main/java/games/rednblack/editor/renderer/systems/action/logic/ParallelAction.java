@@ -13,10 +13,9 @@ public class ParallelAction<T extends ParallelData> extends ActionLogic<T> {
         actionData.complete = true;
         for (int i = 0; i < actionData.actionsData.size; i++) {
             ActionData data = actionData.actionsData.get(i);
-            ActionLogic logic = Actions.actionLogicMap.get(actionData.actionsData.get(i).logicClassName);
             if (!data.detached) {
                 actionData.complete = false;
-                if (logic.act(delta, entity, data)) {
+                if (Actions.getLogic(data).act(delta, entity, data)) {
                     data.detached = true;
                 }
             }
@@ -10,7 +10,7 @@ public class RepeatAction<T extends RepeatData> extends DelegateAction<T> {
                 && actionData.executedCount >= actionData.repeatCount)
             return true;
 
-        ActionLogic logic = Actions.actionLogicMap.get(actionData.delegatedData.logicClassName);
+        ActionLogic logic = Actions.getLogic(actionData.delegatedData);
         boolean actionEnd = logic.act(delta, entity, actionData.delegatedData);
         if (actionEnd) {
             actionData.executedCount++;
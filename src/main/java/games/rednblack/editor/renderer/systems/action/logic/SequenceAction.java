@@ -10,7 +10,7 @@ public class SequenceAction<T extends SequenceData> extends ParallelAction<T> {
     @Override
     public boolean act(float delta, int entity, T actionData) {
         if (actionData.index >= actionData.actionsData.size) return true;
-        ActionLogic logic = Actions.actionLogicMap.get(actionData.actionsData.get(actionData.index).logicClassName);
+        ActionLogic logic = Actions.getLogic(actionData.actionsData.get(actionData.index));
         if (logic.act(delta, entity, actionData.actionsData.get(actionData.index))) {
             actionData.index++;
             if (actionData.index >= actionData.actionsData.size) return true;
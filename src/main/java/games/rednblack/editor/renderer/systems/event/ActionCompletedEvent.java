@@ -0,0 +1,18 @@
+package games.rednblack.editor.renderer.systems.event;
+
+/**
+ * Posted by {@link games.rednblack.editor.renderer.systems.action.ActionSystem} when an action added to the entity ends.
+ */
+public class ActionCompletedEvent extends EntityEvent {
+    /** Id of the logic of the ended action, see {@link games.rednblack.editor.renderer.systems.action.Actions#getLogicId(String)}. */
+    public int logicId;
+    /** Actions the entity is still running. */
+    public int remaining;
+
+    @Override
+    public void reset() {
+        super.reset();
+        logicId = -1;
+        remaining = 0;
+    }
+}
@@ -0,0 +1,18 @@
+package games.rednblack.editor.renderer.systems.event;
+
+/**
+ * Posted by {@link games.rednblack.editor.renderer.systems.ButtonSystem} when a button changes state.
+ */
+public class ButtonEvent extends EntityEvent {
+    public static final int TOUCH_DOWN = 0;
+    public static final int TOUCH_UP = 1;
+    public static final int CLICKED = 2;
+
+    public int type;
+
+    @Override
+    public void reset() {
+        super.reset();
+        type = 0;
+    }
+}
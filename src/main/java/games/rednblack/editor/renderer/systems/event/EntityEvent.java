@@ -0,0 +1,17 @@
+package games.rednblack.editor.renderer.systems.event;
+
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Base class of the events dispatched by {@link EntityEventBus}. Events are pooled: obtain them with
+ * {@link EntityEventBus#obtain(Class)} and don't keep references after they have been dispatched.
+ */
+public abstract class EntityEvent implements Pool.Poolable {
+    /** Entity the event is about, -1 if none. */
+    public int entity = -1;
+
+    @Override
+    public void reset() {
+        entity = -1;
+    }
+}
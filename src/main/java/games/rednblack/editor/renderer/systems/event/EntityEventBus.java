@@ -0,0 +1,217 @@
+package games.rednblack.editor.renderer.systems.event;
+
+import com.artemis.Aspect;
+import com.artemis.BaseSystem;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.utils.*;
+import games.rednblack.editor.renderer.components.MainItemComponent;
+
+/**
+ * Typed event bus of the world. Events are pooled and queued from any thread, then dispatched in batch on the thread
+ * that processes the world when this system is processed: by default at the end of the frame, after the renderer.
+ * <p>
+ * Listeners subscribe to an event type, either for all the events of that type, only for the events of one entity,
+ * or only for the events of the entities with a given tag. Entity subscriptions are dropped when the entity is deleted.
+ * <p>
+ * Each bus owns the pools of its events, register custom event types with {@link #registerEventType(Class, Pool)}.
+ * Unregistered types are created by reflection, which needs them in {@code gdx.reflect.include} on GWT.
+ */
+public class EntityEventBus extends BaseSystem {
+
+    protected ComponentMapper<MainItemComponent> mainItemMapper;
+
+    private final ObjectMap<Class<? extends EntityEvent>, Subscribers> subscribers = new ObjectMap<>();
+    private final ObjectMap<Class<? extends EntityEvent>, Pool<? extends EntityEvent>> pools = new ObjectMap<>();
+
+    private Array<EntityEvent> queue = new Array<>(false, 64);
+    private Array<EntityEvent> dispatching = new Array<>(false, 64);
+    /** Tag listeners of the event being delivered, collected first so listeners can use the tag set. */
+    private final Array<SnapshotArray<EntityEventListener>> tagListeners = new Array<>();
+
+    public EntityEventBus() {
+        registerEventType(ButtonEvent.class, new Pool<ButtonEvent>() {
+            @Override
+            protected ButtonEvent newObject() {
+                return new ButtonEvent();
+            }
+        });
+        registerEventType(ActionCompletedEvent.class, new Pool<ActionCompletedEvent>() {
+            @Override
+            protected ActionCompletedEvent newObject() {
+                return new ActionCompletedEvent();
+            }
+        });
+    }
+
+    @Override
+    protected void initialize() {
+        world.getAspectSubscriptionManager()
+                .get(Aspect.all())
+                .addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+                    @Override
+                    public void inserted(IntBag entities) {
+
+                    }
+
+                    @Override
+                    public void removed(IntBag entities) {
+                        for (Subscribers typeSubscribers : subscribers.values()) {
+                            for (int i = 0, n = entities.size(); i < n; i++)
+                                typeSubscribers.byEntity.remove(entities.get(i));
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Sets the pool creating the events of the given type, used only by this bus.
+     */
+    public synchronized <T extends EntityEvent> void registerEventType(Class<T> type, Pool<T> pool) {
+        pools.put(type, pool);
+    }
+
+    /**
+     * Returns a pooled event, freed after it has been dispatched.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends EntityEvent> T obtain(Class<T> type) {
+        Pool<T> pool = (Pool<T>) pools.get(type);
+        if (pool == null) {
+            pool = new ReflectionPool<>(type);
+            pools.put(type, pool);
+        }
+        return pool.obtain();
+    }
+
+    /**
+     * Queues the event until the next dispatch.
+     */
+    public synchronized void post(EntityEvent event) {
+        queue.add(event);
+    }
+
+    public <T extends EntityEvent> void subscribe(Class<T> type, EntityEventListener<? super T> listener) {
+        getSubscribers(type).all.add(listener);
+    }
+
+    public <T extends EntityEvent> void subscribe(Class<T> type, int entity, EntityEventListener<? super T> listener) {
+        Subscribers typeSubscribers = getSubscribers(type);
+        SnapshotArray<EntityEventListener> listeners = typeSubscribers.byEntity.get(entity);
+        if (listeners == null) {
+            listeners = new SnapshotArray<>(EntityEventListener.class);
+            typeSubscribers.byEntity.put(entity, listeners);
+        }
+        listeners.add(listener);
+    }
+
+    public <T extends EntityEvent> void subscribe(Class<T> type, String tag, EntityEventListener<? super T> listener) {
+        Subscribers typeSubscribers = getSubscribers(type);
+        SnapshotArray<EntityEventListener> listeners = typeSubscribers.byTag.get(tag);
+        if (listeners == null) {
+            listeners = new SnapshotArray<>(EntityEventListener.class);
+            typeSubscribers.byTag.put(tag, listeners);
+        }
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Class<? extends EntityEvent> type, EntityEventListener<?> listener) {
+        Subscribers typeSubscribers = subscribers.get(type);
+        if (typeSubscribers == null) return;
+        typeSubscribers.all.removeValue(listener, true);
+        for (SnapshotArray<EntityEventListener> listeners : typeSubscribers.byEntity.values())
+            listeners.removeValue(listener, true);
+        for (SnapshotArray<EntityEventListener> listeners : typeSubscribers.byTag.values())
+            listeners.removeValue(listener, true);
+    }
+
+    private Subscribers getSubscribers(Class<? extends EntityEvent> type) {
+        Subscribers typeSubscribers = subscribers.get(type);
+        if (typeSubscribers == null) {
+            typeSubscribers = new Subscribers();
+            subscribers.put(type, typeSubscribers);
+        }
+        return typeSubscribers;
+    }
+
+    @Override
+    protected void processSystem() {
+        dispatch();
+    }
+
+    /**
+     * Dispatches the queued events, must be called on the thread that processes the world.
+     * Events posted by listeners are dispatched too.
+     */
+    public void dispatch() {
+        while (swap()) {
+            for (int i = 0; i < dispatching.size; i++) {
+                EntityEvent event = dispatching.get(i);
+                Subscribers typeSubscribers = subscribers.get(event.getClass());
+                if (typeSubscribers != null)
+                    deliver(typeSubscribers, event);
+                free(event);
+            }
+            dispatching.clear();
+        }
+    }
+
+    private void deliver(Subscribers typeSubscribers, EntityEvent event) {
+        notify(typeSubscribers.all, event);
+
+        if (event.entity == -1)
+            return;
+
+        if (typeSubscribers.byEntity.size > 0)
+            notify(typeSubscribers.byEntity.get(event.entity), event);
+
+        if (typeSubscribers.byTag.size > 0) {
+            MainItemComponent mainItemComponent = mainItemMapper.get(event.entity);
+            if (mainItemComponent != null && mainItemComponent.tags.size > 0) {
+                for (String tag : mainItemComponent.tags) {
+                    SnapshotArray<EntityEventListener> listeners = typeSubscribers.byTag.get(tag);
+                    if (listeners != null)
+                        tagListeners.add(listeners);
+                }
+                for (int i = 0; i < tagListeners.size; i++)
+                    notify(tagListeners.get(i), event);
+                tagListeners.clear();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void notify(SnapshotArray<EntityEventListener> listeners, EntityEvent event) {
+        if (listeners == null || listeners.size == 0)
+            return;
+
+        EntityEventListener[] items = listeners.begin();
+        for (int i = 0, n = listeners.size; i < n; i++)
+            items[i].onEvent(event);
+        listeners.end();
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized void free(EntityEvent event) {
+        Pool<EntityEvent> pool = (Pool<EntityEvent>) pools.get(event.getClass());
+        if (pool != null)
+            pool.free(event);
+    }
+
+    private synchronized boolean swap() {
+        if (queue.size == 0)
+            return false;
+
+        Array<EntityEvent> posted = queue;
+        queue = dispatching;
+        dispatching = posted;
+        return true;
+    }
+
+    private static class Subscribers {
+        final SnapshotArray<EntityEventListener> all = new SnapshotArray<>(EntityEventListener.class);
+        final IntMap<SnapshotArray<EntityEventListener>> byEntity = new IntMap<>();
+        final ObjectMap<String, SnapshotArray<EntityEventListener>> byTag = new ObjectMap<>();
+    }
+}
@@ -0,0 +1,5 @@
+package games.rednblack.editor.renderer.systems.event;
+
+public interface EntityEventListener<T extends EntityEvent> {
+    void onEvent(T event);
+}
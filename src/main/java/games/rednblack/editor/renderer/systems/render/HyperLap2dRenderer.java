@@ -1,8 +1,10 @@
 package games.rednblack.editor.renderer.systems.render;
 
+import com.artemis.BaseSystem;
 import com.artemis.ComponentMapper;
 import com.artemis.World;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Wire;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.*;
@@ -12,8 +14,8 @@ import com.badlogic.gdx.math.Affine2;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.scenes.scene2d.utils.ScissorStack;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Pool;
-import com.badlogic.gdx.utils.SnapshotArray;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import games.rednblack.editor.renderer.box2dLight.RayHandler;
 import games.rednblack.editor.renderer.commons.IExternalItemType;
@@ -21,8 +23,11 @@ import games.rednblack.editor.renderer.components.*;
 import games.rednblack.editor.renderer.components.normal.NormalMapRendering;
 import games.rednblack.editor.renderer.data.MainItemVO;
 import games.rednblack.editor.renderer.data.ShaderUniformVO;
+import games.rednblack.editor.renderer.systems.PhysicsSystem;
 import games.rednblack.editor.renderer.systems.render.logic.Drawable;
 import games.rednblack.editor.renderer.systems.render.logic.DrawableLogicMapper;
+import games.rednblack.editor.renderer.systems.strategy.ParallelIteratingSystem;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 
 import java.util.Map;
 import java.util.Stack;
@@ -43,10 +48,14 @@ public class HyperLap2dRenderer extends IteratingSystem {
     protected ComponentMapper<ZIndexComponent> zIndexComponentMapper;
     protected ComponentMapper<TextureRegionComponent> textureRegionComponentMapper;
 
+    @Wire(failOnNull = false)
+    protected PhysicsSystem physicsSystem;
+
     protected DrawableLogicMapper drawableLogicMapper;
     private RayHandler rayHandler;
     private Camera camera;
     private Viewport viewport;
+    private ViewPortComponent currentViewPort;
 
     public static float timeRunning = 0;
     public static Color clearColor = Color.CLEAR;
@@ -73,7 +82,8 @@ public class HyperLap2dRenderer extends IteratingSystem {
         }
     };
 
-    private final SnapshotArray<Integer> screenReadingEntities = new SnapshotArray<>(true, 1, Integer.class);
+    private final SnapshotIntArray screenReadingEntities = new SnapshotIntArray(1);
+    private final Array<ParallelIteratingSystem<?>> parallelSystems = new Array<>();
 
     public HyperLap2dRenderer(Batch batch) {
         this.batch = batch;
@@ -100,12 +110,42 @@ public class HyperLap2dRenderer extends IteratingSystem {
         this.pixelsPerWU = pixelsPerWU;
     }
 
+    @Override
+    protected void initialize() {
+        for (BaseSystem system : world.getSystems()) {
+            if (system instanceof ParallelIteratingSystem)
+                parallelSystems.add((ParallelIteratingSystem<?>) system);
+        }
+    }
+
+    @Override
+    protected void begin() {
+        // simulations that overlap with other systems must be done before drawing
+        for (int i = 0; i < parallelSystems.size; i++) {
+            parallelSystems.get(i).join();
+        }
+
+        // lights cast rays against the physics world, it can step only once they are drawn
+        if (physicsSystem != null && !usesLights())
+            physicsSystem.startAsyncStep();
+    }
+
+    @Override
+    protected void end() {
+        if (physicsSystem != null && usesLights())
+            physicsSystem.startAsyncStep();
+    }
+
+    private boolean usesLights() {
+        return rayHandler != null && useLights;
+    }
+
     @Override
     public void process(int entity) {
         timeRunning += getWorld().delta;
 
-        ViewPortComponent ViewPortComponent = viewPortMapper.get(entity);
-        viewport = ViewPortComponent.viewPort;
+        currentViewPort = viewPortMapper.get(entity);
+        viewport = currentViewPort.viewPort;
         camera = viewport.getCamera();
 
         Gdx.gl.glClearColor(clearColor.r, clearColor.g, clearColor.b, clearColor.a);
@@ -164,13 +204,13 @@ public class HyperLap2dRenderer extends IteratingSystem {
         //2. Screen Effects
         if (screenReadingEntities.size > 0) {
             batch.setProjectionMatrix(camera.combined);
-            Integer[] children = screenReadingEntities.begin();
-            for (int i = 0; i < screenReadingEntities.size; i++) {
-                Integer child = children[i];
+            int[] children = screenReadingEntities.begin();
+            for (int i = 0, n = screenReadingEntities.size; i < n; i++) {
+                int child = children[i];
                 if (mainItemComponentMapper.has(child))
                     drawEntity(batch, child, 1, Drawable.RenderingType.TEXTURE);
                 else
-                    screenReadingEntities.removeIndex(i);
+                    screenReadingEntities.removeValue(child);
             }
             screenReadingEntities.end();
         }
@@ -300,24 +340,24 @@ public class HyperLap2dRenderer extends IteratingSystem {
         }
     }
 
-    private void drawChildren(Integer rootEntity, Batch batch, CompositeTransformComponent curCompositeTransformComponent, float parentAlpha,
+    private void drawChildren(int rootEntity, Batch batch, CompositeTransformComponent curCompositeTransformComponent, float parentAlpha,
                               Drawable.RenderingType renderingType) {
         NodeComponent nodeComponent = nodeMapper.get(rootEntity);
-        Integer[] children = nodeComponent.children.begin();
+        int[] children = nodeComponent.children.begin();
         TransformComponent transform = transformMapper.get(rootEntity);
+        LayerMapComponent rootLayers = layerMapComponentMapper.get(rootEntity);
         if (transform.shouldTransform() && !curCompositeTransformComponent.renderToFBO) {
             for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
-                Integer child = children[i];
+                int child = children[i];
 
-                LayerMapComponent rootLayers = layerMapComponentMapper.get(rootEntity);
                 ZIndexComponent childZIndexComponent = zIndexComponentMapper.get(child);
 
-                if (!rootLayers.isVisible(childZIndexComponent.layerName)) {
+                if (rootLayers.isLayerHidden(childZIndexComponent.layerId)) {
                     continue;
                 }
 
                 MainItemComponent childMainItemComponent = mainItemComponentMapper.get(child);
-                if (!childMainItemComponent.visible || childMainItemComponent.culled) {
+                if (!childMainItemComponent.visible || currentViewPort.isCulled(child)) {
                     continue;
                 }
 
@@ -343,17 +383,16 @@ public class HyperLap2dRenderer extends IteratingSystem {
             }
 
             for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
-                Integer child = children[i];
+                int child = children[i];
 
-                LayerMapComponent rootLayers = layerMapComponentMapper.get(rootEntity);
                 ZIndexComponent childZIndexComponent = zIndexComponentMapper.get(child);
 
-                if (!rootLayers.isVisible(childZIndexComponent.layerName)) {
+                if (rootLayers.isLayerHidden(childZIndexComponent.layerId)) {
                     continue;
                 }
 
                 MainItemComponent childMainItemComponent = mainItemComponentMapper.get(child);
-                if (!childMainItemComponent.visible || childMainItemComponent.culled) {
+                if (!childMainItemComponent.visible || currentViewPort.isCulled(child)) {
                     continue;
                 }
 
@@ -378,7 +417,7 @@ public class HyperLap2dRenderer extends IteratingSystem {
         nodeComponent.children.end();
     }
 
-    private void drawEntity(Batch batch, Integer child, float parentAlpha, Drawable.RenderingType renderingType) {
+    private void drawEntity(Batch batch, int child, float parentAlpha, Drawable.RenderingType renderingType) {
         if (renderingType == Drawable.RenderingType.NORMAL_MAP && !normalMapMapper.has(child)) {
             return;
         } else if (renderingType == Drawable.RenderingType.NORMAL_MAP && normalMapMapper.has(child))
@@ -396,7 +435,7 @@ public class HyperLap2dRenderer extends IteratingSystem {
      *
      * @param rootEntity
      */
-    protected Matrix4 computeTransform(Integer rootEntity) {
+    protected Matrix4 computeTransform(int rootEntity) {
         ParentNodeComponent parentNodeComponent = parentNodeMapper.get(rootEntity);
         TransformComponent curTransform = transformMapper.get(rootEntity);
         Affine2 worldTransform = curTransform.worldTransform;
@@ -413,12 +452,12 @@ public class HyperLap2dRenderer extends IteratingSystem {
         if (originX != 0 || originY != 0) worldTransform.translate(-originX, -originY);
 
         // Find the parent that transforms.
-        Integer parentEntity = null;
+        int parentEntity = -1;
         if (parentNodeComponent != null) {
             parentEntity = parentNodeComponent.parentEntity;
         }
 
-        if (parentEntity != null) {
+        if (parentEntity != -1) {
             TransformComponent transform = transformMapper.get(parentEntity);
             if (transform.shouldTransform())
                 worldTransform.preMul(transform.worldTransform);
@@ -428,18 +467,18 @@ public class HyperLap2dRenderer extends IteratingSystem {
         return curTransform.computedTransform;
     }
 
-    protected void applyTransform(Integer rootEntity, Batch batch) {
+    protected void applyTransform(int rootEntity, Batch batch) {
         TransformComponent curTransform = transformMapper.get(rootEntity);
         curTransform.oldTransform.set(batch.getTransformMatrix());
         batch.setTransformMatrix(curTransform.computedTransform);
     }
 
-    protected void resetTransform(Integer rootEntity, Batch batch) {
+    protected void resetTransform(int rootEntity, Batch batch) {
         TransformComponent curTransform = transformMapper.get(rootEntity);
         batch.setTransformMatrix(curTransform.oldTransform);
     }
 
-    protected void applyShader(Integer entity, Batch batch) {
+    protected void applyShader(int entity, Batch batch) {
         if (shaderComponentMapper.has(entity)) {
             ShaderComponent shaderComponent = shaderComponentMapper.get(entity);
             if (shaderComponent.getShader() != null && shaderComponent.getShader().isCompiled()) {
@@ -517,7 +556,7 @@ public class HyperLap2dRenderer extends IteratingSystem {
         }
     }
 
-    protected void resetShader(Integer entity, Batch batch) {
+    protected void resetShader(int entity, Batch batch) {
         if (shaderComponentMapper.has(entity)) {
             batch.setShader(null);
         }
@@ -529,14 +568,14 @@ public class HyperLap2dRenderer extends IteratingSystem {
      * @param entity
      * @return false if the entity belongs to a different rendering layer
      */
-    protected boolean checkRenderingLayer(Integer entity) {
+    protected boolean checkRenderingLayer(int entity) {
         if (shaderComponentMapper.has(entity)) {
             ShaderComponent shaderComponent = shaderComponentMapper.get(entity);
 
-            boolean contains = screenReadingEntities.contains(entity, true);
+            boolean contains = screenReadingEntities.contains(entity);
             if (shaderComponent.renderingLayer == MainItemVO.RenderingLayer.SCREEN) {
                 if (contains)
-                    screenReadingEntities.removeValue(entity, true);
+                    screenReadingEntities.removeValue(entity);
                 return true;
             } else if (shaderComponent.renderingLayer == MainItemVO.RenderingLayer.SCREEN_READING) {
                 if (!contains)
@@ -548,8 +587,55 @@ public class HyperLap2dRenderer extends IteratingSystem {
         return true;
     }
 
+    public void removeSpecialEntity(int entity) {
+        screenReadingEntities.removeValue(entity);
+    }
+
+    /*
+     * Boxed overloads kept for source compatibility: the renderer only calls the int versions, subclasses must
+     * override those instead.
+     */
+
+    /** @deprecated use {@link #computeTransform(int)} */
+    @Deprecated
+    protected Matrix4 computeTransform(Integer rootEntity) {
+        return computeTransform(rootEntity.intValue());
+    }
+
+    /** @deprecated use {@link #applyTransform(int, Batch)} */
+    @Deprecated
+    protected void applyTransform(Integer rootEntity, Batch batch) {
+        applyTransform(rootEntity.intValue(), batch);
+    }
+
+    /** @deprecated use {@link #resetTransform(int, Batch)} */
+    @Deprecated
+    protected void resetTransform(Integer rootEntity, Batch batch) {
+        resetTransform(rootEntity.intValue(), batch);
+    }
+
+    /** @deprecated use {@link #applyShader(int, Batch)} */
+    @Deprecated
+    protected void applyShader(Integer entity, Batch batch) {
+        applyShader(entity.intValue(), batch);
+    }
+
+    /** @deprecated use {@link #resetShader(int, Batch)} */
+    @Deprecated
+    protected void resetShader(Integer entity, Batch batch) {
+        resetShader(entity.intValue(), batch);
+    }
+
+    /** @deprecated use {@link #checkRenderingLayer(int)} */
+    @Deprecated
+    protected boolean checkRenderingLayer(Integer entity) {
+        return checkRenderingLayer(entity.intValue());
+    }
+
+    /** @deprecated use {@link #removeSpecialEntity(int)} */
+    @Deprecated
     public void removeSpecialEntity(Integer entity) {
-        screenReadingEntities.removeValue(entity, true);
+        removeSpecialEntity(entity.intValue());
     }
 
     public void setRayHandler(RayHandler rayHandler) {
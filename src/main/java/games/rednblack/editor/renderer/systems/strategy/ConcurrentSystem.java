@@ -0,0 +1,14 @@
+package games.rednblack.editor.renderer.systems.strategy;
+
+/**
+ * Implemented by systems that can be scheduled by {@link ParallelInvocationStrategy}.
+ * Systems that don't implement it always run alone on the main thread.
+ */
+public interface ConcurrentSystem {
+    /**
+     * Called once when the schedule is built.
+     *
+     * @param access declare here every component type read or written by the system
+     */
+    void declareAccess(SystemAccess access);
+}
@@ -0,0 +1,138 @@
+package games.rednblack.editor.renderer.systems.strategy;
+
+import com.artemis.BaseSystem;
+import com.artemis.Component;
+import com.artemis.EntityManager;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Records structural changes (entity creation and deletion, component add and remove) and applies them in batch
+ * when the system is processed, or at every group boundary when using {@link ParallelInvocationStrategy}.
+ * <p>
+ * Recording methods can be called from any thread, including worker systems and while iterating a subscription.
+ * Commands are played back in the order they were recorded, on the thread that processes the world; commands
+ * targeting an entity deleted in the meantime are skipped.
+ */
+public class EntityCommandBuffer extends BaseSystem {
+
+    /**
+     * Custom command, executed during play back on the thread that processes the world.
+     */
+    public interface EntityCommand {
+        void execute(int entity);
+    }
+
+    private static final int CREATE = 0;
+    private static final int DELETE = 1;
+    private static final int ADD = 2;
+    private static final int REMOVE = 3;
+    private static final int RUN = 4;
+
+    private IntArray commands = new IntArray();
+    private Array<Object> payloads = new Array<>();
+
+    private IntArray playingCommands = new IntArray();
+    private Array<Object> playingPayloads = new Array<>();
+
+    private EntityManager entityManager;
+
+    /**
+     * Creates a new entity at the next sync point.
+     *
+     * @param callback optional, executed with the new entity id: use it to add components or build the entity
+     */
+    public synchronized void create(EntityCommand callback) {
+        record(CREATE, -1, callback);
+    }
+
+    public synchronized void delete(int entity) {
+        record(DELETE, entity, null);
+    }
+
+    public synchronized void addComponent(int entity, Class<? extends Component> type) {
+        record(ADD, entity, type);
+    }
+
+    public synchronized void removeComponent(int entity, Class<? extends Component> type) {
+        record(REMOVE, entity, type);
+    }
+
+    /**
+     * Executes the command at the next sync point, if the entity is still alive.
+     */
+    public synchronized void run(int entity, EntityCommand command) {
+        record(RUN, entity, command);
+    }
+
+    public synchronized boolean isEmpty() {
+        return commands.size == 0;
+    }
+
+    private void record(int command, int entity, Object payload) {
+        commands.add(command, entity);
+        payloads.add(payload);
+    }
+
+    @Override
+    protected void processSystem() {
+        playback();
+    }
+
+    /**
+     * Applies the recorded commands, must be called on the thread that processes the world.
+     * Commands recorded while playing back are applied too.
+     */
+    @SuppressWarnings("unchecked")
+    public void playback() {
+        while (swap()) {
+            int[] items = playingCommands.items;
+            for (int i = 0, n = playingCommands.size; i < n; i += 2) {
+                int command = items[i];
+                int entity = items[i + 1];
+                Object payload = playingPayloads.get(i >> 1);
+
+                if (command == CREATE) {
+                    int created = world.create();
+                    if (payload != null)
+                        ((EntityCommand) payload).execute(created);
+                    continue;
+                }
+
+                if (!entityManager.isActive(entity))
+                    continue;
+
+                switch (command) {
+                    case DELETE:
+                        world.delete(entity);
+                        break;
+                    case ADD:
+                        world.getMapper((Class<? extends Component>) payload).create(entity);
+                        break;
+                    case REMOVE:
+                        world.getMapper((Class<? extends Component>) payload).remove(entity);
+                        break;
+                    case RUN:
+                        ((EntityCommand) payload).execute(entity);
+                        break;
+                }
+            }
+            playingCommands.clear();
+            playingPayloads.clear();
+        }
+    }
+
+    private synchronized boolean swap() {
+        if (commands.size == 0)
+            return false;
+
+        IntArray recordedCommands = commands;
+        commands = playingCommands;
+        playingCommands = recordedCommands;
+
+        Array<Object> recordedPayloads = payloads;
+        payloads = playingPayloads;
+        playingPayloads = recordedPayloads;
+        return true;
+    }
+}
@@ -0,0 +1,156 @@
+package games.rednblack.editor.renderer.systems.strategy;
+
+import com.artemis.BaseEntitySystem;
+import com.artemis.BaseSystem;
+import com.artemis.SystemInvocationStrategy;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+/**
+ * Runs non conflicting systems at the same time.
+ * <p>
+ * Systems are split, keeping their order, into groups of consecutive {@link ConcurrentSystem}s whose
+ * {@link SystemAccess} don't conflict. Inside a group worker systems are submitted to an {@link AsyncExecutor},
+ * while systems pinned with {@link SystemAccess#mainThread()} run on the calling thread; the group is joined
+ * before the next one starts. Systems that don't declare their access always run alone, on the main thread.
+ * <p>
+ * Entity edits are flushed once per group, so systems running in a group must not create or delete entities
+ * from worker threads: record them in the {@link EntityCommandBuffer}, which is played back before every group. On GWT {@link AsyncExecutor} runs tasks synchronously and this behaves like the default strategy.
+ */
+public class ParallelInvocationStrategy extends SystemInvocationStrategy implements Disposable {
+
+    private final AsyncExecutor executor;
+
+    private Array<SystemGroup> groups;
+    private EntityCommandBuffer commandBuffer;
+    private final Array<AsyncResult<Void>> results = new Array<>();
+
+    public ParallelInvocationStrategy(int threads) {
+        executor = new AsyncExecutor(threads, "ParallelInvocationStrategy");
+    }
+
+    @Override
+    protected void process() {
+        if (groups == null)
+            buildGroups();
+
+        for (int i = 0; i < groups.size; i++) {
+            SystemGroup group = groups.get(i);
+            if (commandBuffer != null)
+                commandBuffer.playback();
+            updateEntityStates();
+
+            if (group.workers.size == 0) {
+                for (int j = 0; j < group.main.size; j++) {
+                    BaseSystem system = group.main.get(j);
+                    if (system.isEnabled())
+                        system.process();
+                }
+                continue;
+            }
+
+            for (int j = 0; j < group.workers.size; j++) {
+                SystemTask task = group.workers.get(j);
+                if (task.system.isEnabled()) {
+                    prepareSubscription(task.system);
+                    results.add(executor.submit(task));
+                }
+            }
+
+            for (int j = 0; j < group.main.size; j++) {
+                BaseSystem system = group.main.get(j);
+                if (system.isEnabled())
+                    system.process();
+            }
+
+            for (int j = 0; j < results.size; j++) {
+                results.get(j).get();
+            }
+            results.clear();
+        }
+        if (commandBuffer != null)
+            commandBuffer.playback();
+        updateEntityStates();
+    }
+
+    /**
+     * Subscriptions rebuild their entity list lazily: make sure it happens on this thread,
+     * since systems with the same aspect share the subscription.
+     */
+    private void prepareSubscription(BaseSystem system) {
+        if (system instanceof BaseEntitySystem)
+            ((BaseEntitySystem) system).getSubscription().getEntities();
+    }
+
+    private void buildGroups() {
+        groups = new Array<>();
+        commandBuffer = world.getSystem(EntityCommandBuffer.class);
+        SystemGroup current = null;
+
+        BaseSystem[] systemsData = systems.getData();
+        for (int i = 0, s = systems.size(); s > i; i++) {
+            BaseSystem system = systemsData[i];
+
+            if (!(system instanceof ConcurrentSystem)) {
+                SystemGroup single = new SystemGroup();
+                single.main.add(system);
+                groups.add(single);
+                current = null;
+                continue;
+            }
+
+            SystemAccess access = new SystemAccess();
+            ((ConcurrentSystem) system).declareAccess(access);
+
+            if (current == null || current.conflicts(access)) {
+                current = new SystemGroup();
+                groups.add(current);
+            }
+            current.add(system, access);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        executor.dispose();
+    }
+
+    private static class SystemGroup {
+        final Array<SystemAccess> accesses = new Array<>();
+        final Array<BaseSystem> main = new Array<>();
+        final Array<SystemTask> workers = new Array<>();
+
+        boolean conflicts(SystemAccess access) {
+            for (SystemAccess other : accesses) {
+                if (other.conflicts(access))
+                    return true;
+            }
+            return false;
+        }
+
+        void add(BaseSystem system, SystemAccess access) {
+            accesses.add(access);
+            if (access.isMainThread())
+                main.add(system);
+            else
+                workers.add(new SystemTask(system));
+        }
+    }
+
+    private static class SystemTask implements AsyncTask<Void> {
+        final BaseSystem system;
+
+        SystemTask(BaseSystem system) {
+            this.system = system;
+        }
+
+        @Override
+        public Void call() {
+            system.process();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package games.rednblack.editor.renderer.systems.strategy;
+
+import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+/**
+ * Like {@link com.artemis.systems.IteratingSystem}, but the subscribed entities are split in chunks processed at the
+ * same time on worker threads. The calling thread processes the last chunk and waits for the others, so all the
+ * entities are processed when {@link #processSystem()} returns.
+ * <p>
+ * {@link #process(int, Object)} must only touch components of the given entity: don't create or delete entities,
+ * don't add or remove components and don't use shared static helpers from there. Each chunk receives its own
+ * scratch object, created once with {@link #newScratch()}.
+ * <p>
+ * Workers are opt-in: with 0 threads, the default of the built-in systems, all the entities are processed on the
+ * calling thread and no executor is created. Pass a thread count to enable them, optionally sharing one executor
+ * between systems with {@link #setExecutor(AsyncExecutor)}.
+ * <p>
+ * Systems of {@link games.rednblack.editor.renderer.commons.IExternalItemType}s can opt in by extending this class.
+ * On GWT {@link AsyncExecutor} runs tasks synchronously and chunks are processed one after the other.
+ *
+ * @param <T> type of the per chunk scratch object, {@link Void} if not needed
+ */
+public abstract class ParallelIteratingSystem<T> extends BaseEntitySystem {
+
+    private final int threads;
+    private AsyncExecutor executor;
+    private boolean ownsExecutor;
+
+    private final Array<Chunk> chunks = new Array<>();
+    private int pending;
+    private int[] deferredIds = new int[0];
+    private T mainScratch;
+    private boolean deferJoin = false;
+
+    /** Minimum number of entities of a chunk, smaller subscriptions are processed on the calling thread. */
+    protected int minChunkSize = 64;
+
+    public ParallelIteratingSystem(int threads) {
+        super();
+        this.threads = threads;
+    }
+
+    public ParallelIteratingSystem(Aspect.Builder aspect, int threads) {
+        super(aspect);
+        this.threads = threads;
+    }
+
+    /**
+     * Processes the chunks on a shared executor instead of creating a new one, must be called before the system
+     * is initialized. The executor is not disposed by this system.
+     */
+    public void setExecutor(AsyncExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    protected void initialize() {
+        mainScratch = newScratch();
+        if (threads == 0)
+            return;
+
+        if (executor == null) {
+            executor = new AsyncExecutor(threads, getClass().getSimpleName());
+            ownsExecutor = true;
+        }
+        for (int i = 0; i < threads; i++) {
+            chunks.add(new Chunk(newScratch()));
+        }
+    }
+
+    /**
+     * Creates the scratch object of a chunk, called once for each worker and once for the calling thread.
+     */
+    protected T newScratch() {
+        return null;
+    }
+
+    protected abstract void process(int entityId, T scratch);
+
+    @Override
+    protected final void processSystem() {
+        join();
+
+        IntBag actives = subscription.getEntities();
+        int[] ids = actives.getData();
+        int size = actives.size();
+
+        int maxChunks = deferJoin ? threads : threads + 1;
+        int chunkCount = Math.min(maxChunks, size / Math.max(1, minChunkSize));
+        if (threads == 0 || (chunkCount <= 1 && !(deferJoin && size > 0))) {
+            for (int i = 0; i < size; i++) {
+                process(ids[i], mainScratch);
+            }
+            return;
+        }
+
+        if (deferJoin) {
+            // entity states may be updated before joining, workers can't read the subscription data
+            if (deferredIds.length < size)
+                deferredIds = new int[Math.max(size, deferredIds.length * 2)];
+            System.arraycopy(ids, 0, deferredIds, 0, size);
+            ids = deferredIds;
+        }
+
+        chunkCount = Math.max(1, chunkCount);
+        int chunkSize = (size + chunkCount - 1) / chunkCount;
+        int start = 0;
+        while (start < size && (deferJoin || start + chunkSize < size)) {
+            Chunk chunk = chunks.get(pending++);
+            chunk.ids = ids;
+            chunk.start = start;
+            chunk.end = Math.min(size, start + chunkSize);
+            chunk.result = executor.submit(chunk);
+            start += chunkSize;
+        }
+
+        for (int i = start; i < size; i++) {
+            process(ids[i], mainScratch);
+        }
+
+        if (!deferJoin)
+            join();
+    }
+
+    /**
+     * Waits for the chunks submitted by the last {@link #processSystem()}.
+     * Only needed when {@link #setDeferJoin(boolean)} is enabled, does nothing if there is no pending chunk.
+     * If a chunk failed, its exception is rethrown once all the chunks are done.
+     */
+    public void join() {
+        RuntimeException failure = null;
+        try {
+            for (int i = 0; i < pending; i++) {
+                try {
+                    chunks.get(i).result.get();
+                } catch (RuntimeException e) {
+                    if (failure == null) failure = e;
+                }
+            }
+        } finally {
+            for (int i = 0; i < pending; i++) {
+                Chunk chunk = chunks.get(i);
+                chunk.result = null;
+                chunk.ids = null;
+            }
+            pending = 0;
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * When enabled all the chunks run on worker threads and {@link #processSystem()} returns without waiting for them:
+     * the work overlaps with the next systems, until {@link #join()} is called. Nothing else may touch the components
+     * processed by this system before joining. Has no effect without worker threads.
+     */
+    public void setDeferJoin(boolean deferJoin) {
+        join();
+        this.deferJoin = deferJoin;
+    }
+
+    public boolean isDeferJoin() {
+        return deferJoin;
+    }
+
+    @Override
+    protected void dispose() {
+        join();
+        if (ownsExecutor && executor != null)
+            executor.dispose();
+    }
+
+    private class Chunk implements AsyncTask<Void> {
+        final T scratch;
+        int[] ids;
+        int start, end;
+        AsyncResult<Void> result;
+
+        Chunk(T scratch) {
+            this.scratch = scratch;
+        }
+
+        @Override
+        public Void call() {
+            for (int i = start; i < end; i++) {
+                process(ids[i], scratch);
+            }
+            return null;
+        }
+    }
+}
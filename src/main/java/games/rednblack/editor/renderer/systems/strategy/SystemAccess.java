@@ -0,0 +1,55 @@
+package games.rednblack.editor.renderer.systems.strategy;
+
+import com.artemis.Component;
+import com.badlogic.gdx.utils.ObjectSet;
+
+/**
+ * Read/write sets declared by a {@link ConcurrentSystem}.
+ * Two systems conflict if one of them writes a component type that the other one reads or writes.
+ */
+public class SystemAccess {
+    final ObjectSet<Class<? extends Component>> reads = new ObjectSet<>();
+    final ObjectSet<Class<? extends Component>> writes = new ObjectSet<>();
+    boolean mainThread = false;
+
+    @SafeVarargs
+    public final SystemAccess read(Class<? extends Component>... types) {
+        for (Class<? extends Component> type : types)
+            reads.add(type);
+        return this;
+    }
+
+    @SafeVarargs
+    public final SystemAccess write(Class<? extends Component>... types) {
+        for (Class<? extends Component> type : types)
+            writes.add(type);
+        return this;
+    }
+
+    /**
+     * Pins the system on the thread that calls {@link com.artemis.World#process()}.
+     * Use it for GL-bound systems, systems that run user code and systems relying on shared static state
+     * (libGDX Pools, {@link games.rednblack.editor.renderer.utils.TransformMathUtils}, fonts).
+     * It can still run while worker systems of the same group are processed.
+     */
+    public SystemAccess mainThread() {
+        mainThread = true;
+        return this;
+    }
+
+    public boolean isMainThread() {
+        return mainThread;
+    }
+
+    public boolean conflicts(SystemAccess other) {
+        for (Class<? extends Component> type : writes) {
+            if (other.reads.contains(type) || other.writes.contains(type))
+                return true;
+        }
+        for (Class<? extends Component> type : other.writes) {
+            if (reads.contains(type))
+                return true;
+        }
+        return false;
+    }
+}
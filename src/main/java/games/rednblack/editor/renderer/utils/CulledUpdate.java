@@ -0,0 +1,65 @@
+package games.rednblack.editor.renderer.utils;
+
+/**
+ * Per entity update policy applied while the entity is culled, see
+ * {@link games.rednblack.editor.renderer.components.MainItemComponent#culled}.
+ * <p>
+ * Skipped time is accumulated and given back, up to {@link #maxCatchUp} seconds, on the first update after the
+ * entity becomes visible again.
+ */
+public class CulledUpdate {
+
+    public enum Policy {
+        /** Update every frame, visible or not. */
+        FULL,
+        /** Update once every {@link #reducedInterval} frames while culled. */
+        REDUCED,
+        /** Don't update while culled. */
+        FROZEN
+    }
+
+    public Policy policy;
+    public int reducedInterval = 4;
+    public float maxCatchUp;
+
+    private final Policy defaultPolicy;
+    private final float defaultMaxCatchUp;
+
+    private float pendingDelta = 0;
+    private int skippedFrames = 0;
+
+    public CulledUpdate(Policy policy, float maxCatchUp) {
+        this.defaultPolicy = policy;
+        this.defaultMaxCatchUp = maxCatchUp;
+        reset();
+    }
+
+    /**
+     * @return the delta to update the entity with, 0 if the update must be skipped this frame
+     */
+    public float step(float delta, boolean culled) {
+        if (!culled || policy == Policy.FULL) {
+            float catchUp = Math.min(pendingDelta, maxCatchUp);
+            pendingDelta = 0;
+            skippedFrames = 0;
+            return delta + catchUp;
+        }
+
+        pendingDelta += delta;
+        if (policy == Policy.REDUCED && ++skippedFrames >= reducedInterval) {
+            float reduced = pendingDelta;
+            pendingDelta = 0;
+            skippedFrames = 0;
+            return reduced;
+        }
+        return 0;
+    }
+
+    public void reset() {
+        policy = defaultPolicy;
+        maxCatchUp = defaultMaxCatchUp;
+        reducedInterval = 4;
+        pendingDelta = 0;
+        skippedFrames = 0;
+    }
+}
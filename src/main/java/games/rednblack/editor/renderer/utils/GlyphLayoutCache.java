@@ -0,0 +1,166 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * LRU cache of finished label layouts, shared by all the labels showing the same text with the same font, scale,
+ * size, alignment and wrap. Entries still used by a label are never evicted, so the cache can temporarily grow
+ * beyond its capacity.
+ * <p>
+ * Not thread safe, meant to be used by {@link games.rednblack.editor.renderer.systems.LabelSystem} on the main thread.
+ */
+public class GlyphLayoutCache {
+
+    public static class Entry {
+        final Key key;
+        Entry previous, next;
+        int references;
+
+        public final GlyphLayout layout = new GlyphLayout();
+        /** Null until the entry is laid out for the first time. */
+        public BitmapFontCache cache;
+
+        Entry(Key key) {
+            this.key = key;
+        }
+
+        /** Must be called once by every owner when the entry is no longer used. */
+        public void release() {
+            references--;
+        }
+    }
+
+    private final ObjectMap<Key, Entry> entries = new ObjectMap<>();
+    private final Key probe = new Key();
+    private Entry head, tail;
+    private int capacity;
+
+    public GlyphLayoutCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the shared entry for the given layout, the caller owns a reference and must {@link Entry#release()} it.
+     * The layout and the cache of a new entry still have to be computed, see {@link Entry#cache}.
+     */
+    public Entry obtain(BitmapFont font, float scaleX, float scaleY, CharSequence text, float width, float height,
+                        int labelAlign, int lineAlign, boolean wrap) {
+        probe.set(font, scaleX, scaleY, text, width, height, labelAlign, lineAlign, wrap);
+        Entry entry = entries.get(probe);
+        probe.text = null;
+
+        if (entry == null) {
+            Key key = new Key();
+            key.set(font, scaleX, scaleY, text.toString(), width, height, labelAlign, lineAlign, wrap);
+            entry = new Entry(key);
+            entries.put(key, entry);
+            evict();
+        } else {
+            unlink(entry);
+        }
+        linkFirst(entry);
+        entry.references++;
+        return entry;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+        evict();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return entries.size;
+    }
+
+    private void evict() {
+        Entry entry = tail;
+        while (entries.size > capacity && entry != null) {
+            Entry previous = entry.previous;
+            if (entry.references <= 0) {
+                unlink(entry);
+                entries.remove(entry.key);
+            }
+            entry = previous;
+        }
+    }
+
+    private void linkFirst(Entry entry) {
+        entry.previous = null;
+        entry.next = head;
+        if (head != null) head.previous = entry;
+        head = entry;
+        if (tail == null) tail = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.previous != null) entry.previous.next = entry.next;
+        else head = entry.next;
+        if (entry.next != null) entry.next.previous = entry.previous;
+        else tail = entry.previous;
+        entry.previous = entry.next = null;
+    }
+
+    static class Key {
+        BitmapFont font;
+        float scaleX, scaleY, width, height;
+        CharSequence text;
+        int labelAlign, lineAlign;
+        boolean wrap;
+        int hash;
+
+        void set(BitmapFont font, float scaleX, float scaleY, CharSequence text, float width, float height,
+                 int labelAlign, int lineAlign, boolean wrap) {
+            this.font = font;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+            this.text = text;
+            this.width = width;
+            this.height = height;
+            this.labelAlign = labelAlign;
+            this.lineAlign = lineAlign;
+            this.wrap = wrap;
+
+            int h = font.hashCode();
+            h = 31 * h + Float.floatToIntBits(scaleX);
+            h = 31 * h + Float.floatToIntBits(scaleY);
+            h = 31 * h + Float.floatToIntBits(width);
+            h = 31 * h + Float.floatToIntBits(height);
+            h = 31 * h + labelAlign;
+            h = 31 * h + lineAlign;
+            h = 31 * h + (wrap ? 1 : 0);
+            for (int i = 0, n = text.length(); i < n; i++)
+                h = 31 * h + text.charAt(i);
+            hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            if (hash != other.hash || font != other.font || wrap != other.wrap
+                    || labelAlign != other.labelAlign || lineAlign != other.lineAlign
+                    || scaleX != other.scaleX || scaleY != other.scaleY
+                    || width != other.width || height != other.height)
+                return false;
+
+            int length = text.length();
+            if (length != other.text.length()) return false;
+            for (int i = 0; i < length; i++)
+                if (text.charAt(i) != other.text.charAt(i)) return false;
+            return true;
+        }
+    }
+}
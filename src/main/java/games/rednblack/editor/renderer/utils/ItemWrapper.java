@@ -52,8 +52,8 @@ public class ItemWrapper {
         this.entity = entity;
         nodeComponent = ComponentRetriever.get(entity, NodeComponent.class);
         if (nodeComponent != null) {
-            for (int child : nodeComponent.children) {
-                mapEntity(child);
+            for (int i = 0; i < nodeComponent.children.size; i++) {
+                mapEntity(nodeComponent.children.get(i));
             }
         }
     }
@@ -117,7 +117,7 @@ public class ItemWrapper {
                     parentNode.removeChild(child);
             }
             parentNodeComponent.parentEntity = entity;
-            nodeComponent.children.add(child);
+            nodeComponent.addChild(child);
 
             mapEntity(child);
 
@@ -0,0 +1,151 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.badlogic.gdx.utils.IntIntMap;
+
+/**
+ * Unordered set of unique ints backed by a primitive array, used to store entity hierarchies without boxing.
+ * An index map gives O(1) {@link #contains(int)}, {@link #indexOf(int)} and {@link #removeValue(int)}: removal swaps
+ * the last item into the removed slot, so callers that care about order must sort again after a removal.
+ * <p>
+ * Like {@link com.badlogic.gdx.utils.SnapshotArray}, {@link #begin()} and {@link #end()} allow to modify the array
+ * while iterating: modifications made during an iteration are applied to a copy of the backing array.
+ * <pre>
+ * int[] items = array.begin();
+ * for (int i = 0, n = array.size; i &lt; n; i++) {
+ * 	int item = items[i];
+ * 	// ...
+ * }
+ * array.end();
+ * </pre>
+ */
+public class SnapshotIntArray {
+    public int[] items;
+    public int size;
+
+    private final IntIntMap indices;
+    private int[] snapshot, recycled;
+    private int snapshots;
+
+    public SnapshotIntArray() {
+        this(16);
+    }
+
+    public SnapshotIntArray(int capacity) {
+        items = new int[capacity];
+        indices = new IntIntMap(capacity);
+    }
+
+    /**
+     * @return false if the value was already in the array
+     */
+    public boolean add(int value) {
+        if (indices.containsKey(value)) return false;
+        modified();
+        int[] items = this.items;
+        if (size == items.length) items = resize(Math.max(8, (int) (size * 1.75f)));
+        items[size] = value;
+        indices.put(value, size);
+        size++;
+        return true;
+    }
+
+    public int get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+        return items[index];
+    }
+
+    /**
+     * Replaces the value at the given index, used to permute the items in place.
+     */
+    public void set(int index, int value) {
+        if (index >= size) throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+        modified();
+        int old = items[index];
+        if (indices.get(old, -1) == index) indices.remove(old, -1);
+        items[index] = value;
+        indices.put(value, index);
+    }
+
+    public boolean contains(int value) {
+        return indices.containsKey(value);
+    }
+
+    public int indexOf(int value) {
+        return indices.get(value, -1);
+    }
+
+    /**
+     * Removes the value in O(1), the last item is moved in its place.
+     *
+     * @return true if the value was found and removed
+     */
+    public boolean removeValue(int value) {
+        int index = indices.remove(value, -1);
+        if (index == -1) return false;
+        modified();
+        int last = --size;
+        if (index != last) {
+            int moved = items[last];
+            items[index] = moved;
+            indices.put(moved, index);
+        }
+        return true;
+    }
+
+    public void clear() {
+        modified();
+        indices.clear();
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the backing array, which is guaranteed to not be modified until {@link #end()} is called.
+     */
+    public int[] begin() {
+        modified();
+        snapshot = items;
+        snapshots++;
+        return items;
+    }
+
+    /**
+     * Releases the guarantee that the array returned by {@link #begin()} won't be modified.
+     */
+    public void end() {
+        snapshots = Math.max(0, snapshots - 1);
+        if (snapshot == null) return;
+        if (snapshot != items && snapshots == 0) {
+            // The backing array was copied, keep around the old array.
+            recycled = snapshot;
+        }
+        snapshot = null;
+    }
+
+    private void modified() {
+        if (snapshot == null || snapshot != items) return;
+        // Snapshot is in use, copy backing array to recycled array or create new backing array.
+        if (recycled != null && recycled.length >= size) {
+            System.arraycopy(items, 0, recycled, 0, size);
+            items = recycled;
+            recycled = null;
+        } else
+            resize(items.length);
+    }
+
+    private int[] resize(int newSize) {
+        int[] newItems = new int[newSize];
+        System.arraycopy(items, 0, newItems, 0, Math.min(size, newItems.length));
+        this.items = newItems;
+        return newItems;
+    }
+
+    public int[] toArray() {
+        int[] array = new int[size];
+        System.arraycopy(items, 0, array, 0, size);
+        return array;
+    }
+}